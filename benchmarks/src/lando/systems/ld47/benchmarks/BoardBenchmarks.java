@@ -0,0 +1,153 @@
+package lando.systems.ld47.benchmarks;
+
+import lando.systems.ld47.engine.BasicPiece;
+import lando.systems.ld47.engine.BoardEngine;
+import lando.systems.ld47.engine.BoardSnapshot;
+import lando.systems.ld47.engine.Inputs;
+import lando.systems.ld47.engine.TetradShape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The board rules on their own, no game or gl around them.
+ * Every benchmark that changes the board starts by restoring the same snapshot, restore on its own is
+ * measured too so it can be taken off the others.
+ *
+ * ./gradlew benchmarks:jmh, results go to benchmarks/build/reports/jmh as json
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmarks {
+
+    // fraction of the 10x20 well that is filled before the benchmark starts
+    @Param({"0.1", "0.4", "0.7"})
+    public float fill;
+
+    @Param({"47"})
+    public long seed;
+
+    private static final int TICKS = 60;
+
+    private BasicPiece.Source source;
+    private BoardEngine<BasicPiece> engine;
+    private final BoardSnapshot start = new BoardSnapshot();
+
+    private BasicPiece.Source clearSource;
+    private BoardEngine<BasicPiece> clearEngine;
+    private final BoardSnapshot clearStart = new BoardSnapshot();
+
+    private BasicPiece probe;
+    private int[] inputs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = new BasicPiece.Source(seed);
+        engine = SyntheticBoards.build(source, seed, fill, false);
+        SyntheticBoards.spawn(engine, source, false);
+        engine.snapshot(start);
+
+        clearSource = new BasicPiece.Source(seed);
+        clearEngine = SyntheticBoards.build(clearSource, seed, fill, true);
+        SyntheticBoards.spawn(clearEngine, clearSource, true);
+        clearEngine.snapshot(clearStart);
+
+        probe = new BasicPiece(0);
+        probe.onBoard = true;
+
+        // something like a player, mostly nothing with the odd move, turn or drop
+        Random random = new Random(seed);
+        inputs = new int[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            int roll = random.nextInt(20);
+            if      (roll == 0) inputs[i] = Inputs.LEFT;
+            else if (roll == 1) inputs[i] = Inputs.RIGHT;
+            else if (roll == 2) inputs[i] = Inputs.ROTATE_RIGHT;
+            else if (roll == 3) inputs[i] = Inputs.ROTATE_LEFT;
+            else if (roll == 4) inputs[i] = Inputs.DOWN;
+            else if (roll == 5) inputs[i] = Inputs.PLUNGE;
+            else                inputs[i] = Inputs.NONE;
+        }
+    }
+
+    @Benchmark
+    public int restore() {
+        engine.restore(start);
+        return engine.getPieces().size();
+    }
+
+    // every type, rotation and position in the well against the stack
+    @Benchmark
+    public int collision() {
+        int invalid = 0;
+        for (int type = 0; type < TetradShape.STANDARD.length; type++) {
+            probe.build(type);
+            probe.onBoard = true;
+            for (int rotation = 0; rotation < TetradShape.ROTATIONS; rotation++) {
+                probe.setRotation(rotation);
+                for (int y = 0; y < BoardEngine.HEIGHT; y++) {
+                    probe.originY = y;
+                    for (int x = -2; x < BoardEngine.WIDTH; x++) {
+                        probe.originX = x;
+                        if (engine.invalidMove(probe, 0, 0)) invalid++;
+                    }
+                }
+            }
+        }
+        return invalid;
+    }
+
+    // the active piece set down on the stack, where turning it has to kick
+    @Benchmark
+    public int rotateWithKicks() {
+        engine.restore(start);
+        BasicPiece active = engine.getActive();
+        if (active == null) return 0;
+        active.originY -= engine.dropDistance(active);
+        for (int i = 0; i < TetradShape.ROTATIONS; i++) {
+            engine.step(Inputs.ROTATE_RIGHT);
+        }
+        return active.originX + active.originY;
+    }
+
+    @Benchmark
+    public int hardDrop() {
+        engine.restore(start);
+        engine.step(Inputs.PLUNGE);
+        return engine.getPieces().size();
+    }
+
+    // a vertical I into the well, then stepping until the four rows have cleared and the stack has come down
+    @Benchmark
+    public int lockAndClear() {
+        clearEngine.restore(clearStart);
+        clearEngine.step(Inputs.PLUNGE);
+        for (int i = 0; i < 240 && resolving(clearEngine.getPieces()); i++) {
+            clearEngine.step(Inputs.NONE);
+        }
+        return clearEngine.getLines();
+    }
+
+    @Benchmark
+    public long fullTicks() {
+        engine.restore(start);
+        for (int i = 0; i < TICKS; i++) {
+            engine.step(inputs[i]);
+        }
+        return engine.getTick();
+    }
+
+    private static boolean resolving(List<BasicPiece> pieces) {
+        for (int i = 0; i < pieces.size(); i++) {
+            if (pieces.get(i).resolving()) return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,93 @@
+package lando.systems.ld47.benchmarks;
+
+import lando.systems.ld47.engine.BasicPiece;
+import lando.systems.ld47.engine.BoardEngine;
+import lando.systems.ld47.engine.Inputs;
+import lando.systems.ld47.engine.TetradShape;
+
+import java.util.Random;
+
+/**
+ * Seeded boards filled with dropped pieces up to a given fraction of the well, never with a full row.
+ * With a well the right hand column is left empty over four rows of vertical I pieces,
+ * so a vertical I dropped into it always clears four lines.
+ */
+public class SyntheticBoards {
+
+    public static final int I = 0;
+    public static final int I_VERTICAL = 1;
+    public static final int WELL_X = BoardEngine.WIDTH - 1;
+
+    public static BoardEngine<BasicPiece> build(BasicPiece.Source source, long seed, float fill, boolean well) {
+        BoardEngine<BasicPiece> engine = new BoardEngine<>(source, seed);
+        int[] rows = new int[BoardEngine.HEIGHT + 1];
+        int cells = 0;
+
+        if (well) {
+            for (int x = 0; x < WELL_X; x++) {
+                BasicPiece piece = source.obtain(I);
+                piece.setRotation(I_VERTICAL);
+                engine.place(piece, x - 2, 0);
+                cells += mark(rows, piece);
+            }
+        }
+
+        // leave room to spawn and move above the stack
+        int maxHeight = Math.min(BoardEngine.HEIGHT - 4, Math.round(fill * BoardEngine.HEIGHT) + 2);
+        int targetCells = Math.round(fill * BoardEngine.WIDTH * BoardEngine.HEIGHT);
+        Random random = new Random(seed);
+        for (int attempt = 0; attempt < 5000 && cells < targetCells; attempt++) {
+            BasicPiece piece = source.obtain(random.nextInt(TetradShape.STANDARD.length));
+            piece.setRotation(random.nextInt(TetradShape.ROTATIONS));
+            piece.originX = random.nextInt(BoardEngine.WIDTH + 2) - 2;
+            piece.originY = BoardEngine.HEIGHT - 4;
+            piece.onBoard = true;
+            if (engine.invalidMove(piece, 0, 0)) continue;
+            int y = piece.originY - engine.dropDistance(piece);
+            if (!fits(rows, piece, piece.originX, y, maxHeight, well)) continue;
+            engine.place(piece, piece.originX, y);
+            cells += mark(rows, piece);
+        }
+        return engine;
+    }
+
+    // spawns the next piece so the board has an active one, with a well it's a vertical I lined up over it
+    public static void spawn(BoardEngine<BasicPiece> engine, BasicPiece.Source source, boolean well) {
+        if (well) {
+            source.setNext(source.obtain(I));
+        }
+        engine.step(Inputs.NONE);
+        if (well) {
+            engine.step(Inputs.ROTATE_RIGHT);
+            for (int i = 0; i < BoardEngine.WIDTH; i++) {
+                engine.step(Inputs.RIGHT);
+            }
+        }
+    }
+
+    private static boolean fits(int[] rows, BasicPiece piece, int x, int y, int maxHeight, boolean well) {
+        TetradShape shape = piece.getShape();
+        int rotation = piece.getRotation();
+        int[] added = new int[TetradShape.MAX_SIZE];
+        for (int i = 0; i < shape.size; i++) {
+            int cx = x + shape.xs[rotation][i];
+            int cy = y + shape.ys[rotation][i];
+            if (cy >= maxHeight) return false;
+            if (well && cx == WELL_X) return false;
+            added[shape.ys[rotation][i]] |= 1 << cx;
+        }
+        for (int row = 0; row < added.length; row++) {
+            if (added[row] == 0) continue;
+            if ((rows[y + row] | added[row]) == (1 << BoardEngine.WIDTH) - 1) return false;
+        }
+        return true;
+    }
+
+    private static int mark(int[] rows, BasicPiece piece) {
+        for (int i = 0; i < piece.points.size(); i++) {
+            rows[piece.originY + piece.points.get(i).y] |= 1 << (piece.originX + piece.points.get(i).x);
+        }
+        return piece.points.size();
+    }
+
+}
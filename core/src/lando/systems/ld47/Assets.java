@@ -14,6 +14,8 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ObjectMap;
+import lando.systems.ld47.entities.Tetrad;
+import lando.systems.ld47.utils.VertexArena;
 
 public class Assets implements Disposable {
 
@@ -35,6 +37,8 @@ public class Assets implements Disposable {
     public AssetManager mgr;
     public SpriteBatch batch;
     public ShapeRenderer shapes;
+    // shared by every tetrad on the board
+    public VertexArena tetradVertices;
     public GlyphLayout layout;
     public BitmapFont font;
     public BitmapFont bladeFont16;
@@ -89,6 +93,7 @@ public class Assets implements Disposable {
 
     public ShaderProgram blockShader;
     public ShaderProgram boardShader;
+    public ShaderProgram decalParticleShader;
 
     public Array<ShaderProgram> randomTransitions;
     public ShaderProgram blindsShader;
@@ -141,6 +146,7 @@ public class Assets implements Disposable {
         batch = new SpriteBatch();
         shapes = new ShapeRenderer();
         layout = new GlyphLayout();
+        tetradVertices = Tetrad.newVertexArena();
 
         mgr = new AssetManager();
 
@@ -244,6 +250,7 @@ public class Assets implements Disposable {
         cityShader2 = loadShader("shaders/standard.vert", "shaders/city3.frag");
         blockShader = loadShader("shaders/standard3d.vert", "shaders/cube.frag");
         boardShader = loadShader("shaders/board.vert", "shaders/board.frag");
+        decalParticleShader = loadShader("shaders/decal_particle.vert", "shaders/decal_particle.frag");
 
 
         randomTransitions = new Array<>();
@@ -327,6 +334,7 @@ public class Assets implements Disposable {
         mgr.clear();
         batch.dispose();
         shapes.dispose();
+        tetradVertices.dispose();
     }
 
 }
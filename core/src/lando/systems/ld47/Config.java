@@ -1,5 +1,8 @@
 package lando.systems.ld47;
 
+import lando.systems.ld47.engine.PieceRandomizer;
+import lando.systems.ld47.particles.ParticleBudget;
+
 public class Config {
     public static String title = "Block Runner 2049";
     public static int windowWidth = 1280;
@@ -10,4 +13,17 @@ public class Config {
     public static boolean debug = false;
     public static boolean shaderDebug = false;
     public static boolean showLaunchScreen = false;
+    public static boolean srsKicks = false;
+    public static PieceRandomizer.Policy pieceRandomizer = PieceRandomizer.Policy.BAG_7;
+    public static boolean recordReplays = true;
+    // fetch and post scores online
+    public static boolean leaderboard = true;
+    // simulation steps per second, independent of the display's frame rate
+    public static int stepRate = 120;
+    // most steps run in one frame to catch up after a hitch, anything beyond that is dropped
+    public static int maxStepsPerFrame = 8;
+    // draw moving things between their last two steps instead of where the latest step left them, F9 toggles
+    public static boolean interpolate = true;
+    // most particles to spawn, the budget throttles below this under load, set from the settings screen
+    public static ParticleBudget.Quality particleQuality = ParticleBudget.Quality.high;
 }
@@ -15,10 +15,15 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import lando.systems.ld47.engine.InputLog;
 import lando.systems.ld47.entities.KonamiHandler;
+import lando.systems.ld47.particles.Particles;
 import lando.systems.ld47.screens.BaseScreen;
+import lando.systems.ld47.screens.GameScreen;
 import lando.systems.ld47.screens.LaunchScreen;
 import lando.systems.ld47.screens.TitleScreen;
+import lando.systems.ld47.utils.Profiler;
+import lando.systems.ld47.utils.RenderStats;
 import lando.systems.ld47.utils.accessors.*;
 
 public class Game extends ApplicationAdapter {
@@ -26,6 +31,7 @@ public class Game extends ApplicationAdapter {
 	public TweenManager tween;
 	public Assets assets;
 	public Audio audio;
+	public Particles particles;
 
 	private BaseScreen currentScreen;
 	private BaseScreen nextScreen;
@@ -36,7 +42,21 @@ public class Game extends ApplicationAdapter {
 	Texture transitionTexture;
 	ShaderProgram transitionShader;
 	boolean transitioning;
+	private float accumulator;
+	private float stepAlpha;
 	public boolean idkfa;
+	// runs everything but the drawing, for the headless soak runs
+	public boolean skipRendering;
+	// a recorded game to play back instead of starting at the title
+	private final InputLog replay;
+
+	public Game() {
+		this(null);
+	}
+
+	public Game(InputLog replay) {
+		this.replay = replay;
+	}
 
 	@Override
 	public void create () {
@@ -69,33 +89,87 @@ public class Game extends ApplicationAdapter {
 			audio = new Audio(this);
 		}
 
-		if (Gdx.app.getType() == Application.ApplicationType.WebGL || Config.showLaunchScreen) {
-			setScreen(new LaunchScreen(this));
-		} else {
-			//setScreen(new LaunchScreen(this));
-			setScreen(new TitleScreen(this));
+		if (particles == null) {
+			particles = new Particles(assets);
 		}
+
+		setScreen(firstScreen());
 		Gdx.input.setInputProcessor(new KonamiHandler(this));
 	}
 
+	protected BaseScreen firstScreen() {
+		if (replay != null) {
+			return new GameScreen(this, replay);
+		} else if (Gdx.app.getType() == Application.ApplicationType.WebGL || Config.showLaunchScreen) {
+			return new LaunchScreen(this);
+		} else {
+			//return new LaunchScreen(this);
+			return new TitleScreen(this);
+		}
+	}
+
 	@Override
 	public void render () {
 	    if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
 	    	Gdx.app.exit();
 		}
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F9)) {
+			Config.interpolate = !Config.interpolate;
+		}
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F8)) {
+			if (RenderStats.isEnabled()) RenderStats.disable();
+			else RenderStats.enable(assets.batch);
+		}
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F7)) {
+			Profiler.setEnabled(!Profiler.isEnabled());
+			if (!Profiler.isEnabled()) {
+				Gdx.app.log("Profiler", Profiler.report());
+			}
+		}
+		Profiler.begin(Profiler.Section.frame);
+		RenderStats.endFrame();
+		if (RenderStats.isEnabled() && RenderStats.getFrames() % 60 == 0) {
+			Gdx.app.log("RenderStats", RenderStats.report());
+		}
 
-		Gdx.gl.glClearColor(0, 0, 0, 1);
-		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		if (!skipRendering) {
+			Gdx.gl.glClearColor(0, 0, 0, 1);
+			Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		}
 
 		float dt = Math.min(Gdx.graphics.getDeltaTime(), 1f / 30f);
-		tween.update(dt);
+		Profiler.begin(Profiler.Section.audio);
 		audio.update(dt);
+		Profiler.end(Profiler.Section.audio);
+		Profiler.begin(Profiler.Section.screenUpdate);
 		currentScreen.update(dt);
-		currentScreen.renderFrameBuffers(assets.batch);
-
 		if (nextScreen != null) {
 			nextScreen.update(dt);
+		}
+		Profiler.end(Profiler.Section.screenUpdate);
+
+		// the simulation runs at a fixed rate however fast frames come, a long hitch is only partly caught up
+		float stepTime = 1f / Config.stepRate;
+		accumulator = Math.min(accumulator + Gdx.graphics.getDeltaTime(), stepTime * Config.maxStepsPerFrame);
+		while (accumulator >= stepTime) {
+			step(stepTime);
+			accumulator -= stepTime;
+		}
+		stepAlpha = accumulator / stepTime;
+		if (skipRendering) {
+			Profiler.end(Profiler.Section.frame);
+			return;
+		}
+
+		Profiler.begin(Profiler.Section.renderFrameBuffers);
+		currentScreen.renderFrameBuffers(assets.batch);
+		if (nextScreen != null) {
 			nextScreen.renderFrameBuffers(assets.batch);
+		}
+		Profiler.end(Profiler.Section.renderFrameBuffers);
+		if (nextScreen != null) {
+			Profiler.begin(Profiler.Section.transition);
+			RenderStats.pass(RenderStats.Pass.transition);
 			transitionFBO.begin();
 			Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 			nextScreen.render(assets.batch);
@@ -106,6 +180,8 @@ public class Game extends ApplicationAdapter {
 			currentScreen.render(assets.batch);
 			originalFBO.end();
 
+			RenderStats.pass(RenderStats.Pass.transition);
+
 			assets.batch.setShader(transitionShader);
 			assets.batch.begin();
 			originalTexture.bind(1);
@@ -116,9 +192,33 @@ public class Game extends ApplicationAdapter {
 			assets.batch.draw(transitionTexture, 0,0, Config.windowWidth, Config.windowHeight);
 			assets.batch.end();
 			assets.batch.setShader(null);
+			Profiler.end(Profiler.Section.transition);
 		} else {
 			currentScreen.render(assets.batch);
 		}
+		Profiler.end(Profiler.Section.frame);
+	}
+
+	// one fixed simulation step, also usable without a render loop at all
+	public void step(float dt) {
+		Profiler.begin(Profiler.Section.step);
+		Profiler.begin(Profiler.Section.tween);
+		tween.update(dt);
+		Profiler.end(Profiler.Section.tween);
+		// shared by both screens during a transition, so stepped once here
+		Profiler.begin(Profiler.Section.particles);
+		particles.update(dt);
+		Profiler.end(Profiler.Section.particles);
+		currentScreen.step(dt);
+		if (nextScreen != null) {
+			nextScreen.step(dt);
+		}
+		Profiler.end(Profiler.Section.step);
+	}
+
+	// how far the frame being drawn is between the last step and the next one, 1 draws the last step as is
+	public float getStepAlpha() {
+		return Config.interpolate ? stepAlpha : 1f;
 	}
 
 	public void setScreen(BaseScreen screen) {
@@ -140,7 +240,11 @@ public class Game extends ApplicationAdapter {
 			transitionPercent.setValue(0);
 			Timeline.createSequence()
 					.pushPause(.1f)
-					.push(Tween.call((i, baseTween) -> nextScreen = newScreen))
+					.push(Tween.call((i, baseTween) -> {
+						// the old screen's particles go with it, from here on they belong to the new one
+						particles.clear();
+						nextScreen = newScreen;
+					}))
 					.push(Tween.to(transitionPercent, 1, transitionSpeed)
 							.target(1))
 					.push(Tween.call((i, baseTween) -> {
@@ -152,12 +256,23 @@ public class Game extends ApplicationAdapter {
 		}
 	}
 
+	public boolean isTransitioning() {
+		return transitioning;
+	}
+
+	// the shared particles are updated and drawn by one screen at a time, the incoming one during a transition
+	public boolean ownsParticles(BaseScreen screen) {
+		return screen == ((nextScreen != null) ? nextScreen : currentScreen);
+	}
+
 	public BaseScreen getScreen() {
 		return currentScreen;
 	}
 
 	@Override
 	public void dispose () {
+		Gdx.app.log("Particles", particles.report());
+		particles.dispose();
 		assets.dispose();
 	}
 
@@ -3,10 +3,15 @@ package lando.systems.ld47;
 import aurelienribon.tweenengine.TweenManager;
 import aurelienribon.tweenengine.primitives.MutableInteger;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.math.MathUtils;
+import lando.systems.ld47.engine.BoardEngine;
+import lando.systems.ld47.engine.PieceRandomizer;
+import lando.systems.ld47.engine.TetradShape;
+import lando.systems.ld47.entities.GameBoard;
 import lando.systems.ld47.entities.Tetrad;
 import lando.systems.ld47.screens.GameScreen;
 
-public class GameState {
+public class GameState implements BoardEngine.PieceSource<Tetrad> {
 
     private final Pool<Tetrad> tetradPool = new Pool<Tetrad>() {
         @Override
@@ -19,6 +24,7 @@ public class GameState {
     public Assets assets;
     public TweenManager tween;
 
+    private final PieceRandomizer randomizer;
     private Tetrad next;
     private MutableInteger mutScore = new MutableInteger(0);
     private MutableInteger mutLineCleared = new MutableInteger(0);
@@ -31,36 +37,91 @@ public class GameState {
     private boolean bitchMode;
 
     public GameState(GameScreen gameScreen) {
+        this(gameScreen, MathUtils.random.nextLong(), Config.pieceRandomizer);
+    }
+
+    public GameState(GameScreen gameScreen, long seed, PieceRandomizer.Policy policy) {
         this.gameScreen = gameScreen;
+        this.randomizer = new PieceRandomizer(policy, seed);
         this.assets = gameScreen.assets;
         this.tween = gameScreen.game.tween;
         this.showGhost = true;
         this.playMusic = true;
         this.playSounds = true;
 
+        // a board's worth up front, so the pool doesn't have to make them in the middle of a game
+        tetradPool.fill(GameBoard.TILESWIDE * GameBoard.TILESHIGH / TetradShape.MAX_SIZE);
         popNext();
 
     }
 
+    @Override
     public Tetrad popNext() {
         Tetrad tetrad = next;
-        next = tetradPool.obtain();
+        next = obtain(randomizer.next());
+        return tetrad;
+    }
+
+    @Override
+    public Tetrad obtain(int type) {
+        Tetrad tetrad = tetradPool.obtain();
+        tetrad.buildPiece(type);
         return tetrad;
     }
 
-    public void freeTetrad(Tetrad tetrad) {
+    @Override
+    public void free(Tetrad tetrad) {
         tetradPool.free(tetrad);
     }
 
+    @Override
     public void setNext(Tetrad tetrad){
+        if (next != null) {
+            tetradPool.free(next);
+        }
         this.next = tetrad;
     }
 
+    @Override
+    public Tetrad peekNext() {
+        return next;
+    }
+
+    @Override
+    public Tetrad copy(Tetrad tetrad) {
+        Tetrad copy = obtain(tetrad.type);
+        copy.copyFrom(tetrad);
+        copy.position.set(tetrad.position);
+        return copy;
+    }
+
+    @Override
+    public PieceRandomizer getRandomizer() {
+        return randomizer;
+    }
+
     // for hud
     public Tetrad viewNext() {
         return next;
     }
 
+    // the types coming after next, 0 is the one right behind it
+    public int peekUpcomingType(int index) {
+        return randomizer.peek(index);
+    }
+
+    public int getUpcomingCount() {
+        return randomizer.getLookahead();
+    }
+
+    public long getSeed() {
+        return randomizer.getSeed();
+    }
+
+    public PieceRandomizer.Policy getPieceRandomizer() {
+        return randomizer.getPolicy();
+    }
+
     public int getScore() {
         return mutScore.intValue();
     }
@@ -86,6 +147,13 @@ public class GameState {
         comboScore.setValue(0);
     }
 
+    // for putting the hud numbers back along with a board snapshot
+    public void setScore(int score, int lineCleared, int combo) {
+        mutScore.setValue(score);
+        mutLineCleared.setValue(lineCleared);
+        comboScore.setValue(combo);
+    }
+
     public void startMusic() {
         if (playMusic) return;
         playMusic = true;
@@ -0,0 +1,71 @@
+package lando.systems.ld47.engine;
+
+/**
+ * A piece with nothing attached, for running the board without the game around it.
+ */
+public class BasicPiece extends Piece<Block> {
+
+    public BasicPiece(int type) {
+        build(type);
+    }
+
+    @Override
+    protected Block newBlock(int x, int y) {
+        return new Block(x, y);
+    }
+
+    /**
+     * Deals pieces from a seeded randomizer.
+     */
+    public static class Source implements BoardEngine.PieceSource<BasicPiece> {
+        public final PieceRandomizer randomizer;
+        private BasicPiece next;
+
+        public Source(long seed) {
+            this(PieceRandomizer.Policy.BAG_7, seed);
+        }
+
+        public Source(PieceRandomizer.Policy policy, long seed) {
+            randomizer = new PieceRandomizer(policy, seed);
+            next = new BasicPiece(randomizer.next());
+        }
+
+        @Override
+        public BasicPiece popNext() {
+            BasicPiece piece = next;
+            next = new BasicPiece(randomizer.next());
+            return piece;
+        }
+
+        @Override
+        public BasicPiece peekNext() {
+            return next;
+        }
+
+        @Override
+        public void setNext(BasicPiece piece) {
+            next = piece;
+        }
+
+        @Override
+        public BasicPiece copy(BasicPiece piece) {
+            BasicPiece copy = obtain(piece.type);
+            copy.copyFrom(piece);
+            return copy;
+        }
+
+        @Override
+        public BasicPiece obtain(int type) {
+            return new BasicPiece(type);
+        }
+
+        @Override
+        public void free(BasicPiece piece) {}
+
+        @Override
+        public PieceRandomizer getRandomizer() {
+            return randomizer;
+        }
+    }
+
+}
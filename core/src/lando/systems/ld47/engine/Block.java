@@ -0,0 +1,83 @@
+package lando.systems.ld47.engine;
+
+/**
+ * One cell of a piece, in the piece's local coordinates.
+ * Blocks that are cleared, shot or stolen run down a timer before they actually leave the board.
+ */
+public class Block {
+    public enum RemoveReason { NOT_REMOVED, CLEARED, STOLEN, SHOT };
+    public int x;
+    public int y;
+    // a plain float and a flag rather than a nullable Float, so counting down doesn't box every step
+    private boolean destroying;
+    private float destroyTimer;
+    public float maxDestroyTimer;
+    private float destroyDelay;
+    public boolean remove;
+    public RemoveReason removeReason;
+
+    public Block(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.removeReason = RemoveReason.NOT_REMOVED;
+    }
+
+    public void set(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    // back to a fresh block, for pieces that reuse their blocks
+    public void reset(int x, int y) {
+        set(x, y);
+        destroying = false;
+        destroyTimer = 0;
+        maxDestroyTimer = 0;
+        destroyDelay = 0;
+        remove = false;
+        removeReason = RemoveReason.NOT_REMOVED;
+    }
+
+    public void update(float dt) {
+        if (destroying){
+            if (destroyDelay > 0){
+                destroyDelay -= dt;
+            } else {
+                destroyTimer -= dt;
+                if (destroyTimer <= 0) {
+                    remove = true;
+                }
+            }
+        }
+    }
+
+    public void setDestroyTimer(float delay, float ttl, RemoveReason reason) {
+        destroying = true;
+        destroyDelay = delay;
+        destroyTimer = ttl;
+        maxDestroyTimer = ttl;
+        this.removeReason = reason;
+    }
+
+    public boolean hasDestroyTimer() {
+        return destroying;
+    }
+
+    // only meaningful while hasDestroyTimer()
+    public float getDestroyTimer() {
+        return destroyTimer;
+    }
+
+    float getDestroyDelay() {
+        return destroyDelay;
+    }
+
+    void restoreDestroyTimer(float delay, float timer, float max, RemoveReason reason) {
+        destroying = true;
+        destroyDelay = delay;
+        destroyTimer = timer;
+        maxDestroyTimer = max;
+        removeReason = reason;
+    }
+
+}
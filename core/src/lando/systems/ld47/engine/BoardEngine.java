@@ -0,0 +1,835 @@
+package lando.systems.ld47.engine;
+
+import java.util.ArrayList;
+
+/**
+ * The rules of the board with nothing to draw: spawning, moving, rotating, gravity, locking,
+ * line clears and scoring, hold, and the opponent's steal and shoot hooks.
+ * Advance it with step(inputs), everything it does that the player should see or hear goes out through the Listener.
+ * It has no libGDX dependency, so it can run as fast as the CPU allows for bots and replays.
+ */
+public class BoardEngine<P extends Piece<?>> {
+
+    public static final int WIDTH = 10;
+    public static final int HEIGHT = 20;
+    public static final float STEP_TIME = 1f / 60f;
+
+    // number of tetrads on the board before the guy will shoot one
+    public static final int MIN_PIECES_TO_SHOOT = 5;
+    // number of tetrads on the board before the guy will transport one
+    public static final int MIN_PIECES_TO_TRANSPORT = 3;
+
+    /**
+     * Where new pieces come from, the next one is visible to the player and can be replaced by a stolen piece.
+     */
+    public interface PieceSource<P> {
+        P popNext();
+        P peekNext();
+        void setNext(P piece);
+        P copy(P piece);
+        // a piece of the given type that isn't on the board, used when restoring a snapshot
+        P obtain(int type);
+        // the piece has left the board for good and can be reused
+        void free(P piece);
+        PieceRandomizer getRandomizer();
+    }
+
+    public interface Listener<P> {
+        void spawned(P piece);
+        void toppedOut(P piece);
+        void rotated(int dir);
+        void swapRefused();
+        void landed(P piece);
+        void plunged(P piece, int rows);
+        void rowsCleared(int rows, int points);
+        void stolen(P piece);
+    }
+
+    public static class Adapter<P> implements Listener<P> {
+        @Override public void spawned(P piece) {}
+        @Override public void toppedOut(P piece) {}
+        @Override public void rotated(int dir) {}
+        @Override public void swapRefused() {}
+        @Override public void landed(P piece) {}
+        @Override public void plunged(P piece, int rows) {}
+        @Override public void rowsCleared(int rows, int points) {}
+        @Override public void stolen(P piece) {}
+    }
+
+    private final PieceSource<P> source;
+    private Listener<P> listener;
+    private final Rng rng;
+
+    // cleared rows can leave a piece with a single block, so there's room for one per cell and the list never grows
+    private final ArrayList<P> pieces = new ArrayList<>(WIDTH * (HEIGHT + 1));
+    private final ArrayList<P> bottomPieces = new ArrayList<>(WIDTH);
+
+    // one bit per filled column for every row of locked pieces, kept current as pieces lock, clear, get shot or stolen
+    // the extra row matches the spawn headroom collidesWithWalls allows
+    private final int[] occupied = new int[HEIGHT + 1];
+    // the same occupancy turned on its side, one bit per filled row for every column
+    private final int[] columns = new int[WIDTH];
+    // number of filled cells per row, and a shift table used to squeeze out empty rows in one pass
+    private final int[] rowFill = new int[HEIGHT + 1];
+    private final int[] rowDrop = new int[HEIGHT + 1];
+    private int fullRows;
+    private boolean rowsNeedCompacting;
+    // bumped whenever a placed block is added, removed or moved, so a view can tell when to rebuild
+    private int placedVersion;
+
+    private P active;
+    private P hold;
+    private P lastSwap;
+    private P pieceToRemove;
+    private boolean pulloutEnabled;
+
+    private float fallInterval = 1f;
+    private float timeToFall = fallInterval;
+
+    private int score;
+    private int lines;
+    private int combo;
+    private long tick;
+
+    public boolean srsKicks = false;
+    private InputLog recorder;
+
+    public BoardEngine(PieceSource<P> source, long seed) {
+        this.source = source;
+        this.listener = new Adapter<>();
+        // salted so it doesn't mirror a piece randomizer given the same seed
+        this.rng = new Rng(seed ^ 0x5DEECE66DL);
+    }
+
+    public void setListener(Listener<P> listener) {
+        this.listener = (listener != null) ? listener : new Adapter<>();
+    }
+
+    public void step(int inputs) {
+        step(inputs, STEP_TIME);
+    }
+
+    public void step(int inputs, float dt) {
+        if (recorder != null) {
+            recorder.recordStep(tick, inputs, dt);
+        }
+        tick++;
+
+        if (Inputs.has(inputs, Inputs.HOLD)) {
+            swapActive();
+        }
+
+        for (int i = pieces.size() - 1; i >= 0; i--) {
+            P piece = pieces.get(i);
+            updateBlocks(piece, dt);
+            if (piece.isEmpty()) {
+                pieces.remove(i);
+                if (piece == lastSwap) {
+                    lastSwap = null;
+                }
+                source.free(piece);
+            }
+        }
+
+        if (rowsNeedCompacting) {
+            compactRows();
+        }
+
+        boolean boardResolving = false;
+        for (int i = 0; i < pieces.size(); i++) {
+            if (pieces.get(i).resolving()) boardResolving = true;
+        }
+        if (boardResolving) return;
+
+        if (active == null) {
+            active = source.popNext();
+            insert(active);
+            if (invalidMove(active, 0, 0)) {
+                listener.toppedOut(active);
+            }
+            timeToFall = fallInterval;
+        }
+
+        if (!pieces.contains(pieceToRemove)) {
+            pieceToRemove = null;
+        }
+        checkForPullOut();
+
+        if (active != null) {
+            if (Inputs.has(inputs, Inputs.RIGHT)) {
+                if (!invalidMove(active, 1, 0)) {
+                    active.originX += 1;
+                }
+            } else if (Inputs.has(inputs, Inputs.LEFT)) {
+                if (!invalidMove(active, -1, 0)) {
+                    active.originX -= 1;
+                }
+            }
+
+            if (Inputs.has(inputs, Inputs.ROTATE_RIGHT)) {
+                rotate(-1);
+            }
+            if (Inputs.has(inputs, Inputs.ROTATE_LEFT)) {
+                rotate(1);
+            }
+
+            if (Inputs.has(inputs, Inputs.DOWN)) {
+                moveDown();
+            }
+
+            if (active != null && Inputs.has(inputs, Inputs.PLUNGE)) {
+                P plunging = active;
+                int rows = dropDistance(active);
+                active.originY -= rows;
+                moveDown();
+                listener.plunged(plunging, rows);
+            }
+        }
+
+        timeToFall -= dt;
+        if (timeToFall < 0 && active != null) {
+            moveDown();
+        }
+
+        if (active != null) {
+            updateBlocks(active, dt);
+        }
+    }
+
+    // ------------------------------------------------------------------------------
+    // hooks for the opponent and the hud
+
+    // everything that reaches the board from here on is written to the log, null to stop recording
+    public void setRecorder(InputLog recorder) {
+        this.recorder = recorder;
+    }
+
+    public InputLog getRecorder() {
+        return recorder;
+    }
+
+    public void enablePullout() {
+        if (recorder != null) {
+            recorder.recordPullout(tick);
+        }
+        pulloutEnabled = true;
+    }
+
+    public void shoot(Block block) {
+        if (recorder != null) {
+            recordShoot(block);
+        }
+        block.setDestroyTimer(0, .3f, Block.RemoveReason.SHOT);
+    }
+
+    // pieceIndex is a placed piece, or the number of placed pieces for the active one
+    public void shoot(int pieceIndex, int blockIndex) {
+        P piece = (pieceIndex < pieces.size()) ? pieces.get(pieceIndex) : active;
+        if (piece == null || blockIndex >= piece.points.size()) return;
+        shoot(piece.points.get(blockIndex));
+    }
+
+    private void recordShoot(Block block) {
+        for (int i = 0; i <= pieces.size(); i++) {
+            P piece = (i < pieces.size()) ? pieces.get(i) : active;
+            if (piece == null) continue;
+            int index = piece.points.indexOf(block);
+            if (index >= 0) {
+                recorder.recordShoot(tick, i, index);
+                return;
+            }
+        }
+    }
+
+    public void discardHold() {
+        if (recorder != null) {
+            recorder.recordDiscardHold(tick);
+        }
+        if (hold == null) return;
+        if (hold == lastSwap) {
+            lastSwap = null;
+        }
+        source.free(hold);
+        hold = null;
+    }
+
+    public void discardNext() {
+        if (recorder != null) {
+            recorder.recordDiscardNext(tick);
+        }
+        source.free(source.popNext());
+    }
+
+    // drops a piece straight into the stack at its current rotation, for puzzles and synthetic boards
+    // it isn't recorded and rows it fills only clear when the next piece lands, returns false if it doesn't fit
+    public boolean place(P piece, int x, int y) {
+        piece.originX = x;
+        piece.originY = y;
+        piece.onBoard = true;
+        if (invalidMove(piece, 0, 0)) {
+            piece.onBoard = false;
+            return false;
+        }
+        pieces.add(piece);
+        occupy(piece);
+        return true;
+    }
+
+    // ------------------------------------------------------------------------------
+    // state
+
+    public P getActive() {
+        return active;
+    }
+
+    public P getHold() {
+        return hold;
+    }
+
+    public P getPieceToRemove() {
+        return pieceToRemove;
+    }
+
+    public ArrayList<P> getPieces() {
+        return pieces;
+    }
+
+    public boolean isPulloutEnabled() {
+        return pulloutEnabled;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getCombo() {
+        return combo;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getPlacedVersion() {
+        return placedVersion;
+    }
+
+    // ------------------------------------------------------------------------------
+    // snapshots
+
+    private static final int HAS_ACTIVE   = 1;
+    private static final int HAS_HOLD     = 2;
+    private static final int PULLOUT      = 4;
+    private static final int COMPACTING   = 8;
+    private static final int HAS_RECORDER = 16;
+
+    private static final int ON_BOARD     = 1;
+    private static final int CUSTOM_SHAPE = 2;
+
+    private static final Block.RemoveReason[] REMOVE_REASONS = Block.RemoveReason.values();
+
+    /**
+     * Writes everything step() depends on into the snapshot, replacing whatever it held.
+     * The piece source's randomizer and next piece are included, so restoring deals the same pieces again.
+     */
+    public void snapshot(BoardSnapshot out) {
+        out.clear();
+        out.writeLong(tick);
+        out.write(score);
+        out.write(lines);
+        out.write(combo);
+        out.writeFloat(fallInterval);
+        out.writeFloat(timeToFall);
+        out.writeLong(rng.getState());
+        int flags = 0;
+        if (active != null)       flags |= HAS_ACTIVE;
+        if (hold != null)         flags |= HAS_HOLD;
+        if (pulloutEnabled)       flags |= PULLOUT;
+        if (rowsNeedCompacting)   flags |= COMPACTING;
+        if (recorder != null)     flags |= HAS_RECORDER;
+        out.write(flags);
+        out.write(pieces.indexOf(pieceToRemove));
+        out.write(indexOfPiece(lastSwap));
+        if (recorder != null) {
+            recorder.save(out);
+        }
+        source.getRandomizer().save(out);
+
+        out.write(pieces.size());
+        for (int i = 0; i < pieces.size(); i++) {
+            writePiece(out, pieces.get(i));
+        }
+        if (active != null) writePiece(out, active);
+        if (hold != null)   writePiece(out, hold);
+        writePiece(out, source.peekNext());
+    }
+
+    /**
+     * Puts the board back the way it was when the snapshot was taken. The pieces on it now go back to the source,
+     * so anything still holding on to them has to look them up again.
+     */
+    public void restore(BoardSnapshot in) {
+        in.rewind();
+        for (int i = 0; i < pieces.size(); i++) {
+            source.free(pieces.get(i));
+        }
+        pieces.clear();
+        bottomPieces.clear();
+        if (active != null) source.free(active);
+        if (hold != null && hold != active) source.free(hold);
+
+        tick = in.readLong();
+        score = in.read();
+        lines = in.read();
+        combo = in.read();
+        fallInterval = in.readFloat();
+        timeToFall = in.readFloat();
+        rng.setState(in.readLong());
+        int flags = in.read();
+        pulloutEnabled = (flags & PULLOUT) != 0;
+        rowsNeedCompacting = (flags & COMPACTING) != 0;
+        int pieceToRemoveIndex = in.read();
+        int lastSwapIndex = in.read();
+        if ((flags & HAS_RECORDER) != 0) {
+            if (recorder != null) {
+                recorder.restore(in);
+            } else {
+                // taken while recording, skip over the log position
+                in.read();
+                in.readLong();
+                in.readFloat();
+            }
+        }
+        source.getRandomizer().restore(in);
+
+        int count = in.read();
+        for (int i = 0; i < count; i++) {
+            pieces.add(readPiece(in));
+        }
+        active = ((flags & HAS_ACTIVE) != 0) ? readPiece(in) : null;
+        hold = ((flags & HAS_HOLD) != 0) ? readPiece(in) : null;
+        source.setNext(readPiece(in));
+        pieceToRemove = (pieceToRemoveIndex >= 0) ? pieces.get(pieceToRemoveIndex) : null;
+        lastSwap = pieceAt(lastSwapIndex);
+
+        for (int y = 0; y < occupied.length; y++) {
+            occupied[y] = 0;
+            rowFill[y] = 0;
+        }
+        for (int x = 0; x < WIDTH; x++) {
+            columns[x] = 0;
+        }
+        fullRows = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            occupy(pieces.get(i));
+        }
+        placedVersion++;
+    }
+
+    // placed pieces by index, then the active piece and the held one
+    private int indexOfPiece(P piece) {
+        if (piece == null) return -1;
+        int index = pieces.indexOf(piece);
+        if (index >= 0) return index;
+        if (piece == active) return pieces.size();
+        if (piece == hold) return pieces.size() + 1;
+        return -1;
+    }
+
+    private P pieceAt(int index) {
+        if (index < 0) return null;
+        if (index < pieces.size()) return pieces.get(index);
+        return (index == pieces.size()) ? active : hold;
+    }
+
+    private void writePiece(BoardSnapshot out, P piece) {
+        TetradShape shape = piece.getShape();
+        boolean custom = shape != TetradShape.STANDARD[piece.type];
+        int flags = (piece.onBoard ? ON_BOARD : 0) | (custom ? CUSTOM_SHAPE : 0);
+        out.write(piece.type | piece.getRotation() << 3 | piece.points.size() << 5 | flags << 8
+                | (piece.originX & 0xFF) << 16 | (piece.originY & 0xFF) << 24);
+
+        int cells = 0;
+        for (int i = 0; i < piece.points.size(); i++) {
+            Block block = piece.points.get(i);
+            cells |= ((block.x & 3) | (block.y & 3) << 2 | block.removeReason.ordinal() << 4) << (i * 6);
+        }
+        out.write(cells);
+
+        if (custom) {
+            int spawnCells = shape.bounds | shape.size << 2;
+            for (int i = 0; i < shape.size; i++) {
+                spawnCells |= (shape.xs[0][i] | shape.ys[0][i] << 2) << (5 + i * 4);
+            }
+            out.write(spawnCells);
+        }
+
+        for (int i = 0; i < piece.points.size(); i++) {
+            Block block = piece.points.get(i);
+            if (block.removeReason == Block.RemoveReason.NOT_REMOVED) continue;
+            out.writeFloat(block.getDestroyDelay());
+            out.writeFloat(block.getDestroyTimer());
+            out.writeFloat(block.maxDestroyTimer);
+        }
+    }
+
+    private P readPiece(BoardSnapshot in) {
+        int header = in.read();
+        int type = header & 7;
+        int rotation = (header >>> 3) & 3;
+        int count = (header >>> 5) & 7;
+        int flags = (header >>> 8) & 0xFF;
+        int cells = in.read();
+
+        P piece = source.obtain(type);
+        TetradShape shape = TetradShape.STANDARD[type];
+        if ((flags & CUSTOM_SHAPE) != 0) {
+            // only stolen pieces get here, rare enough that building the shape again is fine
+            int spawnCells = in.read();
+            int size = (spawnCells >>> 2) & 7;
+            int[] xys = new int[size * 2];
+            for (int i = 0; i < size; i++) {
+                int cell = spawnCells >>> (5 + i * 4);
+                xys[i * 2] = cell & 3;
+                xys[i * 2 + 1] = (cell >>> 2) & 3;
+            }
+            shape = new TetradShape(spawnCells & 3, shape.kicks(true), xys);
+        }
+        piece.restore(type, shape, rotation);
+        piece.originX = (byte) (header >>> 16);
+        piece.originY = (byte) (header >>> 24);
+        piece.onBoard = (flags & ON_BOARD) != 0;
+
+        for (int i = 0; i < count; i++) {
+            int cell = cells >>> (i * 6);
+            Block block = piece.addBlock(cell & 3, (cell >>> 2) & 3);
+            Block.RemoveReason reason = REMOVE_REASONS[(cell >>> 4) & 3];
+            if (reason != Block.RemoveReason.NOT_REMOVED) {
+                float delay = in.readFloat();
+                float timer = in.readFloat();
+                float max = in.readFloat();
+                block.restoreDestroyTimer(delay, timer, max, reason);
+            }
+        }
+        return piece;
+    }
+
+    public boolean canTransportPiece() {
+        return pieces.size() >= MIN_PIECES_TO_TRANSPORT;
+    }
+
+    public boolean canShootBlock() {
+        return pieces.size() >= MIN_PIECES_TO_SHOOT;
+    }
+
+    // ------------------------------------------------------------------------------
+    // collision
+
+    public boolean invalidMove(Piece<?> piece, int dx, int dy) {
+        return collidesWithBlocks(piece, dx, dy) || collidesWithWalls(piece, dx, dy);
+    }
+
+    public boolean collidesWithBlocks(Piece<?> piece, int dx, int dy) {
+        if (!piece.onBoard) return false;
+        return collidesWithBlocks(piece.getRowMasks(), piece.originX + dx, piece.originY + dy);
+    }
+
+    private boolean collidesWithBlocks(int[] masks, int originX, int originY) {
+        for (int row = 0; row < masks.length; row++) {
+            int mask = masks[row];
+            if (mask == 0) continue;
+            int y = originY + row;
+            // anything off the board is the walls' problem
+            if (y < 0 || y >= occupied.length || originX >= WIDTH) continue;
+            int shifted = (originX >= 0) ? mask << originX : mask >>> -originX;
+            if ((occupied[y] & shifted) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean collidesWithWalls(Piece<?> piece, int dx, int dy) {
+        if (!piece.onBoard) return false;
+        return collidesWithWalls(piece.getRowMasks(), piece.originX + dx, piece.originY + dy);
+    }
+
+    private boolean collidesWithWalls(int[] masks, int originX, int originY) {
+        for (int row = 0; row < masks.length; row++) {
+            int mask = masks[row];
+            if (mask == 0) continue;
+            int y = originY + row;
+            if (y < 0 || y > HEIGHT) return true;
+            if (originX + Integer.numberOfTrailingZeros(mask) < 0) return true;
+            if (originX + (31 - Integer.numberOfLeadingZeros(mask)) >= WIDTH) return true;
+        }
+        return false;
+    }
+
+    // how many rows the piece can fall before it lands, read straight off the column masks
+    public int dropDistance(Piece<?> piece) {
+        if (!piece.onBoard) return 0;
+        TetradShape shape = piece.getShape();
+        int[] xs = shape.bottomXs[piece.getRotation()];
+        int[] ys = shape.bottomYs[piece.getRotation()];
+        int count = shape.bottomCounts[piece.getRotation()];
+        int distance = HEIGHT + 1;
+        for (int i = 0; i < count; i++) {
+            int x = piece.originX + xs[i];
+            int y = piece.originY + ys[i];
+            if (x < 0 || x >= WIDTH || y < 0) return 0;
+            distance = Math.min(distance, y - lowestFreeRow(x, y));
+        }
+        return distance;
+    }
+
+    public int getColumnHeight(int x) {
+        return 32 - Integer.numberOfLeadingZeros(columns[x]);
+    }
+
+    // the row a block at (x, y) would come to rest on, works under overhangs as well as on the surface
+    private int lowestFreeRow(int x, int y) {
+        int below = columns[x] & ((1 << y) - 1);
+        return 32 - Integer.numberOfLeadingZeros(below);
+    }
+
+    // ------------------------------------------------------------------------------
+    // rules
+
+    private void insert(P piece) {
+        int height = 0;
+        for (int i = 0; i < piece.points.size(); i++) {
+            Block point = piece.points.get(i);
+            if (point.y > height) height = point.y;
+        }
+        piece.originX = 4;
+        piece.originY = 19 - height;
+        piece.onBoard = true;
+        listener.spawned(piece);
+    }
+
+    private void swapActive() {
+        P current = active;
+        if (hold == null) {
+            if (current == null) return;
+            current.onBoard = false;
+            lastSwap = source.popNext();
+        } else if (current == lastSwap) {
+            listener.swapRefused();
+            return;
+        } else {
+            // current piece not the last one swapped in
+            lastSwap = hold;
+        }
+        insert(lastSwap);
+        active = lastSwap;
+        hold = current;
+    }
+
+    private void rotate(int dir) {
+        listener.rotated(dir);
+
+        TetradShape shape = active.getShape();
+        int from = active.getRotation();
+        int to = TetradShape.rotate(from, dir);
+        KickTable kicks = shape.kicks(srsKicks);
+        int[] offsets = kicks.offsets(from, dir);
+        int[] masks = shape.rowMasks[to];
+
+        for (int i = 0; i < offsets.length; i += 2) {
+            int x = active.originX + offsets[i];
+            int y = active.originY + offsets[i + 1];
+            if (!collidesWithBlocks(masks, x, y) && !collidesWithWalls(masks, x, y)) {
+                active.setRotation(to);
+                active.originX = x;
+                active.originY = y;
+                return;
+            }
+            if (i == 0 && kicks.wallKicksOnly && !collidesWithWalls(masks, x, y)) {
+                return;
+            }
+        }
+    }
+
+    private boolean moveDown() {
+        boolean valid = false;
+
+        if (invalidMove(active, 0, -1)) {
+            P landed = active;
+            pieces.add(landed);
+            occupy(landed);
+            active = null;
+            fallInterval = Math.max(.2f, fallInterval - .005f);
+            listener.landed(landed);
+
+            checkForFullRows();
+
+            if (!pieces.contains(pieceToRemove)) {
+                pieceToRemove = null;
+            }
+        } else {
+            active.originY -= 1;
+            valid = true;
+        }
+        timeToFall = fallInterval;
+        return valid;
+    }
+
+    private void updateBlocks(P piece, float dt) {
+        for (int i = piece.points.size() - 1; i >= 0; i--) {
+            Block point = piece.points.get(i);
+            point.update(dt);
+            if (point.remove) {
+                piece.points.remove(i);
+                vacate(piece, point);
+                placedVersion++;
+            }
+        }
+    }
+
+    private void occupy(P piece) {
+        placedVersion++;
+        for (int i = 0; i < piece.points.size(); i++) {
+            Block point = piece.points.get(i);
+            int x = piece.originX + point.x;
+            int y = piece.originY + point.y;
+            int bit = 1 << x;
+            if ((occupied[y] & bit) != 0) continue;
+            occupied[y] |= bit;
+            columns[x] |= 1 << y;
+            if (++rowFill[y] == WIDTH) {
+                fullRows++;
+            }
+        }
+    }
+
+    // a placed block finished being cleared, shot or stolen
+    private void vacate(P piece, Block point) {
+        if (piece == active || !piece.onBoard) return;
+        int x = piece.originX + point.x;
+        int y = piece.originY + point.y;
+        if (y < 0 || y >= occupied.length) return;
+        int bit = 1 << x;
+        if ((occupied[y] & bit) == 0) return;
+        occupied[y] &= ~bit;
+        columns[x] &= ~(1 << y);
+        if (rowFill[y]-- == WIDTH) {
+            fullRows--;
+        }
+        if (rowFill[y] == 0) {
+            rowsNeedCompacting = true;
+        }
+    }
+
+    private void checkForPullOut() {
+        if (!pieces.contains(pieceToRemove)) {
+            pieceToRemove = null;
+        }
+        if (pulloutEnabled) {
+            if (pieceToRemove != null) {
+                source.setNext(source.copy(pieceToRemove));
+                for (int i = 0; i < pieceToRemove.points.size(); i++) {
+                    pieceToRemove.points.get(i).setDestroyTimer(0, .4f, Block.RemoveReason.STOLEN);
+                }
+                listener.stolen(pieceToRemove);
+            } else {
+                pieceToRemove = getFreeBottomPiece();
+            }
+            pulloutEnabled = false;
+        }
+    }
+
+    private P getFreeBottomPiece() {
+        bottomPieces.clear();
+        for (int x = 0; x < WIDTH; x++) {
+            for (int i = 0; i < pieces.size(); i++) {
+                P piece = pieces.get(i);
+                if (piece.containsPoint(x, 0) && !bottomPieces.contains(piece)) {
+                    bottomPieces.add(piece);
+                }
+            }
+        }
+        if (bottomPieces.isEmpty()) return null;
+        return bottomPieces.get(rng.nextInt(bottomPieces.size()));
+    }
+
+    private void checkForFullRows() {
+        int rowsCleared = 0;
+        if (fullRows > 0) {
+            for (int y = occupied.length - 1; y >= 0; y--) {
+                if (rowFill[y] == WIDTH) {
+                    markRowForDeletion(y);
+                    rowsCleared++;
+                }
+            }
+        }
+
+        float comboMultiplier = 1 + Math.max(combo, 10) / 10;
+        int points = 0;
+        switch (rowsCleared) {
+            case 1: points = Math.round(100 * comboMultiplier); break;
+            case 2: points = Math.round(300 * comboMultiplier); break;
+            case 3: points = Math.round(500 * comboMultiplier); break;
+            case 4: points = Math.round(800 * comboMultiplier); break;
+        }
+        if (rowsCleared > 0) {
+            score += points;
+            lines += rowsCleared;
+            combo++;
+        } else {
+            combo = 0;
+        }
+        listener.rowsCleared(rowsCleared, points);
+    }
+
+    private void markRowForDeletion(int y) {
+        for (int i = 0; i < pieces.size(); i++) {
+            P piece = pieces.get(i);
+            for (int j = 0; j < piece.points.size(); j++) {
+                Block block = piece.points.get(j);
+                if (piece.originY + block.y == y) {
+                    block.setDestroyTimer(rng.nextFloat(.1f, .5f), rng.nextFloat(.6f, 1f), Block.RemoveReason.CLEARED);
+                }
+            }
+        }
+    }
+
+    // drops every row down past the empty rows beneath it, in a single pass over the board
+    private void compactRows() {
+        rowsNeedCompacting = false;
+        placedVersion++;
+        int write = 0;
+        for (int y = 0; y < occupied.length; y++) {
+            rowDrop[y] = y - write;
+            if (rowFill[y] > 0) {
+                occupied[write] = occupied[y];
+                rowFill[write] = rowFill[y];
+                write++;
+            }
+        }
+        if (write == occupied.length) return;
+        for (int y = write; y < occupied.length; y++) {
+            occupied[y] = 0;
+            rowFill[y] = 0;
+        }
+        for (int x = 0; x < WIDTH; x++) {
+            columns[x] = 0;
+        }
+        for (int y = 0; y < write; y++) {
+            int row = occupied[y];
+            while (row != 0) {
+                int x = Integer.numberOfTrailingZeros(row);
+                columns[x] |= 1 << y;
+                row &= row - 1;
+            }
+        }
+        for (int i = 0; i < pieces.size(); i++) {
+            pieces.get(i).dropRows(rowDrop);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package lando.systems.ld47.engine;
+
+/**
+ * A board frozen at one tick, packed into a flat int array so that taking and restoring one
+ * allocates nothing once the array has grown to fit. Meant to be reused, the AI looking ahead
+ * or a rewind buffer can keep a handful of these and cycle through them.
+ *
+ * A placed piece takes two ints, one for its type, rotation and origin and one for its cells at
+ * six bits each, plus a few more only while blocks are running down their destroy timers.
+ */
+public class BoardSnapshot {
+
+    private int[] data;
+    private int length;
+    private int position;
+
+    public BoardSnapshot() {
+        this(256);
+    }
+
+    public BoardSnapshot(int capacity) {
+        data = new int[capacity];
+    }
+
+    public void clear() {
+        length = 0;
+        position = 0;
+    }
+
+    // start reading from the beginning again
+    public void rewind() {
+        position = 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void set(BoardSnapshot other) {
+        clear();
+        ensureCapacity(other.length);
+        System.arraycopy(other.data, 0, data, 0, other.length);
+        length = other.length;
+    }
+
+    public void write(int value) {
+        ensureCapacity(1);
+        data[length++] = value;
+    }
+
+    public int read() {
+        if (position >= length) {
+            throw new IllegalStateException("Read past the end of the snapshot");
+        }
+        return data[position++];
+    }
+
+    public void writeFloat(float value) {
+        write(Float.floatToIntBits(value));
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat(read());
+    }
+
+    public void writeLong(long value) {
+        write((int) (value >>> 32));
+        write((int) value);
+    }
+
+    public long readLong() {
+        long high = read() & 0xFFFFFFFFL;
+        long low = read() & 0xFFFFFFFFL;
+        return (high << 32) | low;
+    }
+
+    // piece types at three bits each, ten to an int
+    void writeTypes(int[] types, int count) {
+        int packed = 0;
+        for (int i = 0; i < count; i++) {
+            packed |= (types[i] & 7) << ((i % 10) * 3);
+            if (i % 10 == 9 || i == count - 1) {
+                write(packed);
+                packed = 0;
+            }
+        }
+    }
+
+    void readTypes(int[] types, int count) {
+        int packed = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 0) {
+                packed = read();
+            }
+            types[i] = (packed >>> ((i % 10) * 3)) & 7;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra <= data.length) return;
+        int[] grown = new int[Math.max(data.length * 2, length + extra)];
+        System.arraycopy(data, 0, grown, 0, length);
+        data = grown;
+    }
+
+}
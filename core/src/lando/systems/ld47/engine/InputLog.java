@@ -0,0 +1,336 @@
+package lando.systems.ld47.engine;
+
+/**
+ * Everything needed to play a board back exactly: the seed and rules it started with, then every
+ * input and outside event tagged with the tick it happened on, packed as varints.
+ * Steps without any input are not written at all, so a whole game comes to a few kilobytes.
+ *
+ * Layout: magic, version, seed, randomizer policy, flags, step time, then records of
+ * (tick delta, kind | payload...) until an END record holding the final tick, score and lines.
+ */
+public class InputLog {
+
+    private static final int MAGIC = 0x4C443437; // LD47
+    private static final int VERSION = 1;
+
+    private static final int INPUTS       = 0;
+    private static final int STEP_TIME    = 1;
+    private static final int PULLOUT      = 2;
+    private static final int SHOOT        = 3;
+    private static final int DISCARD_HOLD = 4;
+    private static final int DISCARD_NEXT = 5;
+    private static final int END          = 6;
+
+    private static final int FLAG_SRS_KICKS = 1;
+
+    private byte[] bytes;
+    private int length;
+
+    private long seed;
+    private PieceRandomizer.Policy policy;
+    private boolean srsKicks;
+    private float stepTime;
+
+    private int headerLength;
+    private long lastTick;
+    private float lastStepTime;
+    private boolean finished;
+
+    private InputLog() {}
+
+    public static InputLog record(long seed, PieceRandomizer.Policy policy, boolean srsKicks, float stepTime) {
+        InputLog log = new InputLog();
+        log.bytes = new byte[4096];
+        log.seed = seed;
+        log.policy = policy;
+        log.srsKicks = srsKicks;
+        log.stepTime = stepTime;
+        log.lastStepTime = stepTime;
+        log.writeInt(MAGIC);
+        log.writeVarInt(VERSION);
+        log.writeLong(seed);
+        log.writeVarInt(policy.ordinal());
+        log.writeVarInt(srsKicks ? FLAG_SRS_KICKS : 0);
+        log.writeInt(Float.floatToIntBits(stepTime));
+        log.headerLength = log.length;
+        return log;
+    }
+
+    public static InputLog read(byte[] data) {
+        InputLog log = new InputLog();
+        log.bytes = data;
+        log.length = data.length;
+        log.finished = true;
+        if (data.length < 4 || log.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an input log");
+        }
+        int version = log.readVarInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported input log version " + version);
+        }
+        log.seed = log.readLong();
+        log.policy = PieceRandomizer.Policy.values()[log.readVarInt()];
+        log.srsKicks = (log.readVarInt() & FLAG_SRS_KICKS) != 0;
+        log.stepTime = Float.intBitsToFloat(log.readInt());
+        log.headerLength = log.position;
+        return log;
+    }
+
+    // a board without any of the game around it, set up the way the recorded one was
+    public BoardEngine<BasicPiece> newHeadlessEngine() {
+        BoardEngine<BasicPiece> engine = new BoardEngine<>(new BasicPiece.Source(policy, seed), seed);
+        engine.srsKicks = srsKicks;
+        return engine;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public PieceRandomizer.Policy getPolicy() {
+        return policy;
+    }
+
+    public boolean isSrsKicks() {
+        return srsKicks;
+    }
+
+    public float getStepTime() {
+        return stepTime;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, 0, copy, 0, length);
+        return copy;
+    }
+
+    // ------------------------------------------------------------------------------
+    // recording, called by the engine with the number of ticks it has completed
+
+    void recordStep(long tick, int inputs, float dt) {
+        if (finished) return;
+        if (dt != lastStepTime) {
+            writeRecord(tick, STEP_TIME);
+            writeInt(Float.floatToIntBits(dt));
+            lastStepTime = dt;
+        }
+        if (inputs != Inputs.NONE) {
+            writeRecord(tick, INPUTS);
+            writeVarInt(inputs);
+        }
+    }
+
+    void recordPullout(long tick) {
+        if (finished) return;
+        writeRecord(tick, PULLOUT);
+    }
+
+    void recordShoot(long tick, int piece, int block) {
+        if (finished) return;
+        writeRecord(tick, SHOOT);
+        writeVarInt(piece);
+        writeVarInt(block);
+    }
+
+    void recordDiscardHold(long tick) {
+        if (finished) return;
+        writeRecord(tick, DISCARD_HOLD);
+    }
+
+    void recordDiscardNext(long tick) {
+        if (finished) return;
+        writeRecord(tick, DISCARD_NEXT);
+    }
+
+    public void finish(BoardEngine<?> engine) {
+        if (finished) return;
+        writeRecord(engine.getTick(), END);
+        writeVarInt(engine.getScore());
+        writeVarInt(engine.getLines());
+        finished = true;
+    }
+
+    // a board restored from a snapshot picks the log up from where it was when the snapshot was taken
+    void save(BoardSnapshot out) {
+        out.write(length);
+        out.writeLong(lastTick);
+        out.writeFloat(lastStepTime);
+    }
+
+    void restore(BoardSnapshot in) {
+        int savedLength = in.read();
+        long savedTick = in.readLong();
+        float savedStepTime = in.readFloat();
+        if (finished || savedLength > length) return;
+        length = savedLength;
+        lastTick = savedTick;
+        lastStepTime = savedStepTime;
+    }
+
+    private void writeRecord(long tick, int kind) {
+        writeVarLong(tick - lastTick);
+        writeVarInt(kind);
+        lastTick = tick;
+    }
+
+    // ------------------------------------------------------------------------------
+    // playback
+
+    public Player play() {
+        return new Player(this);
+    }
+
+    /**
+     * Feeds a log back into an engine one step at a time, the engine must have been set up from the log's header.
+     */
+    public static class Player {
+        private final InputLog log;
+        private long nextTick;
+        private int nextKind;
+        private float stepTime;
+        private boolean done;
+        private long endTick = -1;
+        private int endScore;
+        private int endLines;
+
+        Player(InputLog log) {
+            this.log = log;
+            log.position = log.headerLength;
+            stepTime = log.stepTime;
+            readRecordHeader(0);
+        }
+
+        public InputLog getLog() {
+            return log;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        // -1 if the log was cut short before its end record
+        public long getEndTick() {
+            return endTick;
+        }
+
+        public int getEndScore() {
+            return endScore;
+        }
+
+        public int getEndLines() {
+            return endLines;
+        }
+
+        /**
+         * Applies everything recorded for the engine's current tick, then steps it once.
+         * Returns false once the end of the log has been reached.
+         */
+        public boolean step(BoardEngine<?> engine) {
+            long tick = engine.getTick();
+            int inputs = Inputs.NONE;
+            while (!done && nextTick == tick) {
+                switch (nextKind) {
+                    case INPUTS:       inputs = log.readVarInt(); break;
+                    case STEP_TIME:    stepTime = Float.intBitsToFloat(log.readInt()); break;
+                    case PULLOUT:      engine.enablePullout(); break;
+                    case SHOOT:        engine.shoot(log.readVarInt(), log.readVarInt()); break;
+                    case DISCARD_HOLD: engine.discardHold(); break;
+                    case DISCARD_NEXT: engine.discardNext(); break;
+                    case END:
+                        endTick = tick;
+                        endScore = log.readVarInt();
+                        endLines = log.readVarInt();
+                        done = true;
+                        return false;
+                }
+                readRecordHeader(nextTick);
+            }
+            if (done) return false;
+            engine.step(inputs, stepTime);
+            return true;
+        }
+
+        private void readRecordHeader(long tick) {
+            if (log.position >= log.length) {
+                // a log cut short, play what there is
+                done = true;
+                return;
+            }
+            nextTick = tick + log.readVarLong();
+            nextKind = log.readVarInt();
+        }
+    }
+
+    // ------------------------------------------------------------------------------
+    // encoding
+
+    private int position;
+
+    private void ensureCapacity(int extra) {
+        if (length + extra <= bytes.length) return;
+        byte[] grown = new byte[Math.max(bytes.length * 2, length + extra)];
+        System.arraycopy(bytes, 0, grown, 0, length);
+        bytes = grown;
+    }
+
+    private void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        bytes[length++] = (byte) (value >>> 24);
+        bytes[length++] = (byte) (value >>> 16);
+        bytes[length++] = (byte) (value >>> 8);
+        bytes[length++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readInt() {
+        return ((bytes[position++] & 0xFF) << 24)
+             | ((bytes[position++] & 0xFF) << 16)
+             | ((bytes[position++] & 0xFF) << 8)
+             |  (bytes[position++] & 0xFF);
+    }
+
+    private long readLong() {
+        long high = readInt() & 0xFFFFFFFFL;
+        long low = readInt() & 0xFFFFFFFFL;
+        return (high << 32) | low;
+    }
+
+}
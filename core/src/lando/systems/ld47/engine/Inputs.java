@@ -0,0 +1,23 @@
+package lando.systems.ld47.engine;
+
+/**
+ * Bits for the actions a player can trigger in one step of the board.
+ * Key repeat is already resolved by the time these reach the engine, a set bit means do it once.
+ */
+public final class Inputs {
+    public static final int NONE         = 0;
+    public static final int LEFT         = 1;
+    public static final int RIGHT        = 1 << 1;
+    public static final int DOWN         = 1 << 2;
+    public static final int ROTATE_RIGHT = 1 << 3;
+    public static final int ROTATE_LEFT  = 1 << 4;
+    public static final int PLUNGE       = 1 << 5;
+    public static final int HOLD         = 1 << 6;
+
+    private Inputs() {}
+
+    public static boolean has(int inputs, int input) {
+        return (inputs & input) != 0;
+    }
+
+}
@@ -0,0 +1,74 @@
+package lando.systems.ld47.engine;
+
+/**
+ * Offsets to try, in order, when a rotation doesn't fit where the piece is.
+ * Offsets are (x, y) pairs with y pointing up the board, looked up by the rotation state
+ * being left and the direction of the turn.
+ */
+public class KickTable {
+
+    private static final int CW = 0;
+    private static final int CCW = 1;
+
+    // the original jam behaviour, only nudge sideways and only when the rotation poked through a wall
+    public static final KickTable LEGACY = uniform(true, 0,0, -1,0, 1,0, -2,0, 2,0);
+
+    public static final KickTable NONE = uniform(false, 0,0);
+
+    // https://tetris.wiki/Super_Rotation_System
+    public static final KickTable SRS_JLSTZ = new KickTable(false, new int[][][] {
+            // from 0
+            { { 0,0, -1,0, -1, 1,  0,-2, -1,-2 },   // 0 -> R
+              { 0,0,  1,0,  1, 1,  0,-2,  1,-2 } }, // 0 -> L
+            // from R
+            { { 0,0,  1,0,  1,-1,  0, 2,  1, 2 },   // R -> 2
+              { 0,0,  1,0,  1,-1,  0, 2,  1, 2 } }, // R -> 0
+            // from 2
+            { { 0,0,  1,0,  1, 1,  0,-2,  1,-2 },   // 2 -> L
+              { 0,0, -1,0, -1, 1,  0,-2, -1,-2 } }, // 2 -> R
+            // from L
+            { { 0,0, -1,0, -1,-1,  0, 2, -1, 2 },   // L -> 0
+              { 0,0, -1,0, -1,-1,  0, 2, -1, 2 } }, // L -> 2
+    });
+
+    public static final KickTable SRS_I = new KickTable(false, new int[][][] {
+            // from 0
+            { { 0,0, -2,0,  1,0, -2,-1,  1, 2 },   // 0 -> R
+              { 0,0, -1,0,  2,0, -1, 2,  2,-1 } }, // 0 -> L
+            // from R
+            { { 0,0, -1,0,  2,0, -1, 2,  2,-1 },   // R -> 2
+              { 0,0,  2,0, -1,0,  2, 1, -1,-2 } }, // R -> 0
+            // from 2
+            { { 0,0,  2,0, -1,0,  2, 1, -1,-2 },   // 2 -> L
+              { 0,0,  1,0, -2,0,  1,-2, -2, 1 } }, // 2 -> R
+            // from L
+            { { 0,0,  1,0, -2,0,  1,-2, -2, 1 },   // L -> 0
+              { 0,0, -2,0,  1,0, -2,-1,  1, 2 } }, // L -> 2
+    });
+
+    /**
+     * When set, offsets past the first are only tried if the unkicked rotation hit a wall,
+     * a rotation blocked purely by other blocks is refused outright.
+     */
+    public final boolean wallKicksOnly;
+    private final int[][][] offsets;
+
+    public KickTable(boolean wallKicksOnly, int[][][] offsets) {
+        this.wallKicksOnly = wallKicksOnly;
+        this.offsets = offsets;
+    }
+
+    private static KickTable uniform(boolean wallKicksOnly, int... offsets) {
+        int[][][] table = new int[TetradShape.ROTATIONS][2][];
+        for (int state = 0; state < TetradShape.ROTATIONS; state++) {
+            table[state][CW] = offsets;
+            table[state][CCW] = offsets;
+        }
+        return new KickTable(wallKicksOnly, table);
+    }
+
+    public int[] offsets(int fromState, int dir) {
+        return offsets[fromState][(dir < 0) ? CW : CCW];
+    }
+
+}
@@ -0,0 +1,150 @@
+package lando.systems.ld47.engine;
+
+import java.util.ArrayList;
+
+/**
+ * A tetrad as far as the rules are concerned: its blocks, shape, rotation and where it sits on the board.
+ * Subclasses decide what kind of block they are made of, the game's Tetrad adds everything needed to draw it.
+ */
+public abstract class Piece<B extends Block> {
+
+    public final ArrayList<B> points = new ArrayList<>(TetradShape.MAX_SIZE);
+    // blocks from earlier builds, handed out again before any new ones are made
+    private final ArrayList<B> spare = new ArrayList<>(TetradShape.MAX_SIZE);
+    public int type;
+    public int originX;
+    public int originY;
+    public boolean onBoard;
+    private TetradShape shape;
+    private int rotation;
+    // what copyFrom fills in, each piece keeps its own since a pooled piece only ever holds one shape at a time
+    private final TetradShape leftover = new TetradShape();
+    private final int[] leftoverCells = new int[TetradShape.MAX_SIZE * 2];
+
+    protected abstract B newBlock(int x, int y);
+
+    protected B obtainBlock(int x, int y) {
+        if (spare.isEmpty()) {
+            return newBlock(x, y);
+        }
+        B block = spare.remove(spare.size() - 1);
+        block.reset(x, y);
+        return block;
+    }
+
+    // makes sure this many blocks can be handed out without making new ones
+    protected void reserveBlocks(int count) {
+        while (spare.size() + points.size() < count) {
+            spare.add(newBlock(0, 0));
+        }
+    }
+
+    // empties the piece, keeping its blocks around for the next build
+    public void clearPoints() {
+        // addAll would copy the list into a new array first
+        for (int i = 0; i < points.size(); i++) {
+            spare.add(points.get(i));
+        }
+        points.clear();
+    }
+
+    public void build(int type) {
+        this.type = type;
+        clearPoints();
+        shape = TetradShape.STANDARD[type];
+        rotation = 0;
+        onBoard = false;
+        for (int i = 0; i < shape.size; i++) {
+            points.add(obtainBlock(shape.xs[0][i], shape.ys[0][i]));
+        }
+    }
+
+    // takes over whatever is left of another piece, which becomes the spawn state of a one-off shape
+    public void copyFrom(Piece<B> clone) {
+        clearPoints();
+        int[] cells = leftoverCells;
+        for (int i = 0; i < clone.points.size(); i++) {
+            B point = clone.points.get(i);
+            points.add(obtainBlock(point.x, point.y));
+            cells[i * 2] = point.x;
+            cells[i * 2 + 1] = point.y;
+        }
+        originX = clone.originX;
+        originY = clone.originY;
+        leftover.set(clone.shape.bounds, clone.shape.kicks(true), cells, clone.points.size());
+        shape = leftover;
+        rotation = 0;
+    }
+
+    // puts the piece back the way a snapshot found it, the blocks are added afterwards with addBlock
+    void restore(int type, TetradShape shape, int rotation) {
+        this.type = type;
+        this.shape = shape;
+        this.rotation = rotation;
+        clearPoints();
+    }
+
+    Block addBlock(int x, int y) {
+        B block = obtainBlock(x, y);
+        points.add(block);
+        return block;
+    }
+
+    public TetradShape getShape() {
+        return shape;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public void setRotation(int state) {
+        rotation = state;
+        int[] xs = shape.xs[state];
+        int[] ys = shape.ys[state];
+        for (int i = 0; i < points.size(); i++) {
+            points.get(i).set(xs[i], ys[i]);
+        }
+    }
+
+    // masks of the current rotation state, only meaningful while the piece is still whole (active, held or next)
+    public int[] getRowMasks() {
+        return shape.rowMasks[rotation];
+    }
+
+    public boolean containsPoint(int x, int y) {
+        for (int i = 0; i < points.size(); i++) {
+            B point = points.get(i);
+            if (point.x + originX == x && point.y + originY == y) return true;
+        }
+        return false;
+    }
+
+    public boolean resolving() {
+        for (int i = 0; i < points.size(); i++) {
+            B piece = points.get(i);
+            if (piece.hasDestroyTimer() && piece.getDestroyTimer() > 0 && piece.removeReason == Block.RemoveReason.CLEARED) return true;
+        }
+        return false;
+    }
+
+    // rowDrop holds, for every board row, how many rows the blocks in it fall
+    public void dropRows(int[] rowDrop) {
+        if (points.isEmpty()) return;
+        int bottom = Integer.MAX_VALUE;
+        for (int i = 0; i < points.size(); i++) {
+            bottom = Math.min(bottom, originY + points.get(i).y);
+        }
+        int originDrop = rowDrop[bottom];
+        for (int i = 0; i < points.size(); i++) {
+            B point = points.get(i);
+            point.y -= rowDrop[originY + point.y] - originDrop;
+        }
+        originY -= originDrop;
+    }
+
+    public boolean isEmpty() {
+        return points.isEmpty();
+    }
+
+}
@@ -0,0 +1,131 @@
+package lando.systems.ld47.engine;
+
+/**
+ * Deals piece types from a seeded generator and keeps the next few queued up in a ring buffer,
+ * so the hud and the opponent can look ahead without anything being built or allocated.
+ */
+public class PieceRandomizer {
+
+    public enum Policy {
+        // every type equally likely on every deal
+        RANDOM(0),
+        // every type once per bag of 7
+        BAG_7(1),
+        // every type twice per bag of 14
+        BAG_14(2);
+
+        public final int copies;
+
+        Policy(int copies) {
+            this.copies = copies;
+        }
+    }
+
+    public static final int TYPES = TetradShape.STANDARD.length;
+    public static final int DEFAULT_LOOKAHEAD = 5;
+
+    private final Rng rng;
+    private Policy policy;
+    private long seed;
+
+    private final int[] bag = new int[TYPES * 2];
+    private int bagSize;
+    private int bagIndex;
+
+    private final int[] queue;
+    private int queueHead;
+
+    public PieceRandomizer(Policy policy, long seed) {
+        this(policy, seed, DEFAULT_LOOKAHEAD);
+    }
+
+    public PieceRandomizer(Policy policy, long seed, int lookahead) {
+        this.rng = new Rng(seed);
+        this.queue = new int[lookahead];
+        reset(policy, seed);
+    }
+
+    public void reset(Policy policy, long seed) {
+        this.policy = policy;
+        this.seed = seed;
+        rng.setSeed(seed);
+        bagSize = 0;
+        bagIndex = 0;
+        queueHead = 0;
+        for (int i = 0; i < queue.length; i++) {
+            queue[i] = deal();
+        }
+    }
+
+    public int next() {
+        int type = queue[queueHead];
+        queue[queueHead] = deal();
+        queueHead = (queueHead + 1) % queue.length;
+        return type;
+    }
+
+    // 0 is the type next() will return
+    public int peek(int index) {
+        return queue[(queueHead + index) % queue.length];
+    }
+
+    public int getLookahead() {
+        return queue.length;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Rng getRng() {
+        return rng;
+    }
+
+    void save(BoardSnapshot out) {
+        out.writeLong(rng.getState());
+        out.write(policy.ordinal() | bagSize << 2 | bagIndex << 8 | queueHead << 16);
+        out.writeTypes(bag, bagSize);
+        out.writeTypes(queue, queue.length);
+    }
+
+    // the snapshot has to come from a randomizer with the same lookahead
+    void restore(BoardSnapshot in) {
+        rng.setState(in.readLong());
+        int packed = in.read();
+        policy = Policy.values()[packed & 3];
+        bagSize = (packed >>> 2) & 0x3F;
+        bagIndex = (packed >>> 8) & 0xFF;
+        queueHead = packed >>> 16;
+        in.readTypes(bag, bagSize);
+        in.readTypes(queue, queue.length);
+    }
+
+    private int deal() {
+        if (policy == Policy.RANDOM) {
+            return rng.nextInt(TYPES);
+        }
+        if (bagIndex == bagSize) {
+            refillBag();
+        }
+        return bag[bagIndex++];
+    }
+
+    private void refillBag() {
+        bagSize = TYPES * policy.copies;
+        for (int i = 0; i < bagSize; i++) {
+            bag[i] = i % TYPES;
+        }
+        for (int i = bagSize - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int swap = bag[i];
+            bag[i] = bag[j];
+            bag[j] = swap;
+        }
+        bagIndex = 0;
+    }
+
+}
@@ -0,0 +1,47 @@
+package lando.systems.ld47.engine;
+
+/**
+ * Small seedable xorshift generator, so a board run from the same seed and inputs always plays out the same.
+ */
+public class Rng {
+    private long state;
+
+    public Rng(long seed) {
+        setSeed(seed);
+    }
+
+    public void setSeed(long seed) {
+        // a zero state would only ever produce zeroes
+        state = (seed == 0) ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    public long nextLong() {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state * 0x2545F4914F6CDD1DL;
+    }
+
+    // in [0, bound)
+    public int nextInt(int bound) {
+        return (int) ((nextLong() >>> 33) % bound);
+    }
+
+    // in [0, 1)
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    public float nextFloat(float start, float end) {
+        return start + nextFloat() * (end - start);
+    }
+
+}
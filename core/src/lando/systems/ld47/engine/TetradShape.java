@@ -0,0 +1,103 @@
+package lando.systems.ld47.engine;
+
+/**
+ * A tetrad's cells in all four rotation states, worked out once so that turning a piece
+ * is an index change instead of coordinate arithmetic.
+ * State 0 is the spawn orientation and each step up is a clockwise quarter turn inside the (bounds + 1) box.
+ */
+public class TetradShape {
+
+    public static final int ROTATIONS = 4;
+    // pieces live in a (bounds + 1) square box, bounds is at most 3
+    public static final int MAX_SIZE = 4;
+
+    // indexed by piece type, the same order as the cases in Tetrad.buildNewPiece
+    public static final TetradShape[] STANDARD = new TetradShape[] {
+            // I
+            new TetradShape(3, KickTable.SRS_I,     0,2, 1,2, 2,2, 3,2),
+            // L
+            new TetradShape(2, KickTable.SRS_JLSTZ, 0,2, 0,1, 1,1, 2,1),
+            // Other L
+            new TetradShape(2, KickTable.SRS_JLSTZ, 0,1, 1,1, 2,1, 2,2),
+            // square
+            new TetradShape(1, KickTable.NONE,      0,0, 0,1, 1,0, 1,1),
+            // S
+            new TetradShape(2, KickTable.SRS_JLSTZ, 0,1, 1,1, 1,2, 2,2),
+            // other S
+            new TetradShape(2, KickTable.SRS_JLSTZ, 0,2, 1,2, 1,1, 2,1),
+            // T
+            new TetradShape(2, KickTable.SRS_JLSTZ, 0,1, 1,1, 1,2, 2,1),
+    };
+
+    public int bounds;
+    public int size;
+    // [state][cell]
+    public final int[][] xs = new int[ROTATIONS][MAX_SIZE];
+    public final int[][] ys = new int[ROTATIONS][MAX_SIZE];
+    // [state][local row], one bit per occupied local column
+    public final int[][] rowMasks = new int[ROTATIONS][MAX_SIZE];
+    // [state][i], the first bottomCounts[state] cells with nothing of the piece directly underneath them
+    public final int[][] bottomXs = new int[ROTATIONS][MAX_SIZE];
+    public final int[][] bottomYs = new int[ROTATIONS][MAX_SIZE];
+    public final int[] bottomCounts = new int[ROTATIONS];
+    private KickTable srsKicks;
+
+    public TetradShape(int bounds, KickTable srsKicks, int... cells) {
+        set(bounds, srsKicks, cells, cells.length / 2);
+    }
+
+    // an empty shape for a piece to fill in with set(), see Piece.copyFrom
+    TetradShape() {}
+
+    // works the shape out again in place, so a one-off shape doesn't have to be a new one
+    void set(int bounds, KickTable srsKicks, int[] cells, int size) {
+        this.bounds = bounds;
+        this.size = size;
+        this.srsKicks = srsKicks;
+
+        for (int i = 0; i < size; i++) {
+            xs[0][i] = cells[i * 2];
+            ys[0][i] = cells[i * 2 + 1];
+        }
+        for (int state = 1; state < ROTATIONS; state++) {
+            for (int i = 0; i < size; i++) {
+                xs[state][i] = ys[state - 1][i];
+                ys[state][i] = bounds - xs[state - 1][i];
+            }
+        }
+        for (int state = 0; state < ROTATIONS; state++) {
+            for (int row = 0; row < MAX_SIZE; row++) {
+                rowMasks[state][row] = 0;
+            }
+            for (int i = 0; i < size; i++) {
+                rowMasks[state][ys[state][i]] |= 1 << xs[state][i];
+            }
+        }
+
+        for (int state = 0; state < ROTATIONS; state++) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (isBottom(state, i)) {
+                    bottomXs[state][count] = xs[state][i];
+                    bottomYs[state][count] = ys[state][i];
+                    count++;
+                }
+            }
+            bottomCounts[state] = count;
+        }
+    }
+
+    private boolean isBottom(int state, int cell) {
+        int y = ys[state][cell];
+        return y == 0 || (rowMasks[state][y - 1] & (1 << xs[state][cell])) == 0;
+    }
+
+    public static int rotate(int state, int dir) {
+        return (dir < 0) ? (state + 1) % ROTATIONS : (state + ROTATIONS - 1) % ROTATIONS;
+    }
+
+    public KickTable kicks(boolean srs) {
+        return srs ? srsKicks : KickTable.LEGACY;
+    }
+
+}
@@ -0,0 +1,111 @@
+package lando.systems.ld47.entities;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import lando.systems.ld47.utils.VertexArena;
+
+import java.util.List;
+
+/**
+ * Every locked block on the board in one mesh, drawn with a single call.
+ * It's only rebuilt when blocks lock, clear or get shot or stolen, or when a tetrad starts or stops animating.
+ * Tetrads that are sliding down, flashing or running a destroy timer are kept out of it and written into
+ * their own arena slice every frame instead, like the falling piece, so they don't drag the whole board along.
+ * Faces pressed against another settled block can't be seen, so they're left out of the mesh.
+ */
+public class BoardMesh {
+
+    // top, left, right and front
+    private static final int QUADS_PER_BLOCK = 4;
+
+    private Mesh mesh;
+    private float[] vertices;
+    private int quadCount;
+    // one bit per column for every row, blocks that sit still and aren't going anywhere
+    private final int[] occupied = new int[GameBoard.TILESHIGH + 4];
+    private int builtVersion = -1;
+    // the tetrads drawn from their own slices this frame
+    private final Array<Tetrad> animated = new Array<Tetrad>(false, 16);
+
+    public BoardMesh() {
+        allocate((GameBoard.TILESHIGH + 1) * GameBoard.TILESWIDE);
+    }
+
+    private void allocate(int blocks) {
+        if (mesh != null) {
+            mesh.dispose();
+        }
+        mesh = new Mesh(true, blocks * QUADS_PER_BLOCK * 4, blocks * QUADS_PER_BLOCK * 6, Tetrad.vertexAttributes());
+        mesh.setIndices(VertexArena.quadIndices(blocks * QUADS_PER_BLOCK));
+        vertices = new float[blocks * QUADS_PER_BLOCK * Tetrad.FLOATS_PER_QUAD];
+    }
+
+    // builds the animated tetrads' slices too, upload the arena after this and before render
+    public void update(List<Tetrad> tetrads, int version, float alpha) {
+        boolean rebuild = version != builtVersion;
+        int blocks = 0;
+        animated.clear();
+        for (int i = 0; i < tetrads.size(); i++) {
+            Tetrad tetrad = tetrads.get(i);
+            boolean wasAnimated = tetrad.hasModels();
+            if (tetrad.isAnimating()) {
+                tetrad.buildModels(alpha);
+                animated.add(tetrad);
+                if (!wasAnimated) rebuild = true;
+            } else {
+                // settled again, back into the mesh where it ended up
+                if (wasAnimated) {
+                    tetrad.freeModels();
+                    rebuild = true;
+                }
+                blocks += tetrad.points.size();
+            }
+        }
+        if (!rebuild) return;
+
+        if (blocks * QUADS_PER_BLOCK * 4 > mesh.getMaxVertices()) {
+            allocate(blocks);
+        }
+        fillOccupied(tetrads);
+        int index = 0;
+        for (int i = 0; i < tetrads.size(); i++) {
+            Tetrad tetrad = tetrads.get(i);
+            if (tetrad.hasModels()) continue;
+            index = tetrad.writeModel(vertices, index, alpha, occupied);
+        }
+        quadCount = index / Tetrad.FLOATS_PER_QUAD;
+        mesh.setVertices(vertices, 0, index);
+        builtVersion = version;
+    }
+
+    // anything still sliding down or running a destroy timer doesn't hide its neighbours
+    private void fillOccupied(List<Tetrad> tetrads) {
+        for (int i = 0; i < occupied.length; i++) {
+            occupied[i] = 0;
+        }
+        for (int i = 0; i < tetrads.size(); i++) {
+            Tetrad tetrad = tetrads.get(i);
+            if (tetrad.hasModels()) continue;
+            for (int j = 0; j < tetrad.points.size(); j++) {
+                TetradPiece point = tetrad.points.get(j);
+                if (point.remove) continue;
+                int x = tetrad.originX + point.x;
+                int y = tetrad.originY + point.y;
+                if (x < 0 || x >= GameBoard.TILESWIDE || y < 0 || y >= occupied.length) continue;
+                occupied[y] |= 1 << x;
+            }
+        }
+    }
+
+    public void render(ShaderProgram shader) {
+        if (quadCount > 0) {
+            mesh.render(shader, GL20.GL_TRIANGLES, 0, quadCount * 6);
+        }
+        for (int i = 0; i < animated.size; i++) {
+            animated.get(i).renderModels(shader);
+        }
+    }
+
+}
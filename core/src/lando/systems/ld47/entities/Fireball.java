@@ -20,7 +20,7 @@ public class Fireball {
     private Vector2 originOffset = new Vector2(32, 32);
     private Vector2 offset;
 
-    public Fireball(Opponent opponent, Vector2 target) {
+    public Fireball(Opponent opponent) {
         this.opponent = opponent;
         animation = opponent.screen.assets.shot;
         texture = animation.getKeyFrame(0);
@@ -29,11 +29,21 @@ public class Fireball {
         height = texture.getRegionHeight();
         size = new Vector2(width, height).scl(opponent.carScale);
 
-        position = opponent.getFireballCenter();
+        position = new Vector2();
+        offset = new Vector2();
+    }
+
+    // the opponent only has one shot in the air at a time, so the same fireball is sent off again every time
+    public Fireball aim(Vector2 target) {
+        time = 0;
+        texture = animation.getKeyFrame(0);
+
+        opponent.getFireballCenter(position);
         scaleX = (target.x < position.x) ? 1 : -1;
 
         float x = (scaleX > 0) ? -originOffset.x : originOffset.x - width;
-        offset = new Vector2(x, -originOffset.y).scl(opponent.carScale);
+        offset.set(x, -originOffset.y).scl(opponent.carScale);
+        return this;
     }
 
     public void update(float dt) {
@@ -1,76 +1,91 @@
 package lando.systems.ld47.entities;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.*;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g3d.decals.CameraGroupStrategy;
-import com.badlogic.gdx.graphics.g3d.decals.DecalBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.OrderedSet;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
 import lando.systems.ld47.Audio;
+import lando.systems.ld47.Config;
 import lando.systems.ld47.GameState;
+import lando.systems.ld47.engine.BoardEngine;
+import lando.systems.ld47.engine.BoardSnapshot;
+import lando.systems.ld47.engine.InputLog;
+import lando.systems.ld47.engine.Inputs;
 import lando.systems.ld47.input.PlayerInput;
-import lando.systems.ld47.particles.Particle;
-import lando.systems.ld47.particles.ParticleDecal;
+import lando.systems.ld47.utils.LightingUniforms;
 import lando.systems.ld47.utils.OrbitPointLight;
 import lando.systems.ld47.utils.PointLight;
+import lando.systems.ld47.utils.Profiler;
+import lando.systems.ld47.utils.RenderStats;
 
-public class GameBoard {
-    public static int TILESWIDE = 10;
-    public static int TILESHIGH = 20;
-    public static int MAX_POINT_LIGHTS = 5;
+import java.util.ArrayList;
 
-    // number of tetrads on the board before the guy will shoot one
-    public final int minTetradsToShoot = 5;
-    // number of tetrads on the board before the guy will transport one
-    public final int minTetradsToTransport = 3;
+public class GameBoard implements BoardEngine.Listener<Tetrad> {
+    public static int TILESWIDE = BoardEngine.WIDTH;
+    public static int TILESHIGH = BoardEngine.HEIGHT;
+    public static int MAX_POINT_LIGHTS = 5;
 
     public final GameState gameState;
+    public final BoardEngine<Tetrad> engine;
     private final PlayerInput playerInput;
     private final OrthographicCamera camera;
-
-    private final Array<Tetrad> tetrads;
+    // set when the board is playing back a recorded game instead of taking input
+    private final InputLog.Player replay;
 
     FrameBuffer gameFB;
     Texture gameTexture;
 
-    public Tetrad activeTetrad;
-    public Tetrad tetradToRemove;
     public Rectangle gameBounds;
-    float fallInterval;
-    float timeToFall;
 
-    public boolean pulloutEnabled = false;
-    private boolean previousBlockCleared = false;
     PerspectiveCamera boardCam;
     private Color ambientColor = new Color(.4f, .4f, .4f, 1f);
     private Color directionColor = new Color(.6f, .6f, .6f, 1f);
     private Vector3 directionLight = new Vector3(.1f, -.5f, .8f).nor();
 
     public PointLight[] pointLights;
+    private LightingUniforms boardLighting;
+    private LightingUniforms blockLighting;
     private GameBackPlate backPlate;
+    private BoardMesh boardMesh;
 
-    private DecalBatch decalBatch;
+    private final Pool<BoardSnapshot> snapshotPool = new Pool<BoardSnapshot>() {
+        @Override
+        protected BoardSnapshot newObject() {
+            return new BoardSnapshot();
+        }
+    };
 
     public GameBoard(GameState gameState) {
+        this(gameState, null);
+    }
+
+    public GameBoard(GameState gameState, InputLog replay) {
         this.gameState = gameState;
         this.playerInput = gameState.gameScreen.playerInput;
         this.camera = gameState.gameScreen.worldCamera;
-        this.tetrads = new Array<>();
+        this.engine = new BoardEngine<>(gameState, gameState.getSeed());
+        this.engine.setListener(this);
+        if (replay != null) {
+            this.replay = replay.play();
+            this.engine.srsKicks = replay.isSrsKicks();
+        } else {
+            this.replay = null;
+            this.engine.srsKicks = Config.srsKicks;
+            if (Config.recordReplays) {
+                engine.setRecorder(InputLog.record(gameState.getSeed(), gameState.getPieceRandomizer(), engine.srsKicks, 1f / Config.stepRate));
+            }
+        }
         float width = TILESWIDE * Tetrad.POINT_WIDTH;
         float height = TILESHIGH * Tetrad.POINT_WIDTH;
         gameBounds = new Rectangle((camera.viewportWidth - width) / 2f, (camera.viewportHeight - height) / 2f, width, height);
-        fallInterval = 1f;
-        timeToFall = fallInterval;
-
-        gameFB = new FrameBuffer(Pixmap.Format.RGBA8888, (int)gameBounds.width, (int)gameBounds.height, true);
-        gameTexture = gameFB.getColorBufferTexture();
 
         boardCam = new PerspectiveCamera(60, 12, 20);
 //        boardCam.setToOrtho(false);
@@ -80,9 +95,8 @@ public class GameBoard {
         boardCam.lookAt(5f, 8, 0);
         boardCam.update();
 
-        decalBatch = new DecalBatch(new CameraGroupStrategy(boardCam));
-
         backPlate = new GameBackPlate();
+        boardMesh = new BoardMesh();
 
         pointLights = new PointLight[MAX_POINT_LIGHTS];
         pointLights[0] = new OrbitPointLight(0, new Vector3(0, 0, 15), new Color(.5f, 0, .5f, 1f), new Vector3(.5f, .5f, 0));
@@ -90,31 +104,12 @@ public class GameBoard {
         pointLights[2] = new OrbitPointLight(2, new Vector3(0, -15, 0), new Color(.5f, .5f, 0f, 1f), new Vector3(1, 0, 0));
         pointLights[3] = new PointLight(3, new Vector3(-30, 10, 20), new Color(.3f, .3f, .3f, 1f));
         pointLights[4] = new PointLight(4, new Vector3(-30, 10, 20), new Color(.3f, .3f, .3f, 1f));
+        // looked up once, and only what changed since the last frame gets sent
+        boardLighting = new LightingUniforms(gameState.gameScreen.assets.boardShader);
+        blockLighting = new LightingUniforms(gameState.gameScreen.assets.blockShader);
     }
 
 
-    Tetrad lastSwap = null;
-    // this happens in an update loop, so it's cool
-    public Tetrad swapActiveTetrad(Tetrad hold) {
-        Tetrad current = activeTetrad;
-        if (hold == null) {
-            if (current == null) { return null; }
-
-            current.removeFromBoard();
-            lastSwap = gameState.popNext();
-        } else if (current == lastSwap) {
-            gameState.gameScreen.playSound(Audio.Sounds.tet_noswap);
-            return hold;
-        } else {
-            // current piece not the last one swapped in
-            lastSwap = hold;
-        }
-        lastSwap.insertIntoBoard(this);
-        activeTetrad = lastSwap;
-
-        return current;
-    }
-
     public void update(float dt) {
         if (isPaused()) return;
 
@@ -124,119 +119,128 @@ public class GameBoard {
             light.update(dt);
         }
         backPlate.update(dt);
-        gameState.gameScreen.particles.updateDecals(dt, boardCam);
+        if (gameState.gameScreen.game.ownsParticles(gameState.gameScreen)) {
+            Profiler.begin(Profiler.Section.decals);
+            gameState.gameScreen.particles.updateDecals(dt);
+            Profiler.end(Profiler.Section.decals);
+        }
 
-        for (int i = tetrads.size - 1; i >= 0; i--) {
-            Tetrad tetrad = tetrads.get(i);
-            tetrad.update(dt);
-            if (tetrad.isEmpty()) {
-                tetrads.removeIndex(i);
-            }
+        if (replay != null) {
+            replay.step(engine);
+        } else {
+            engine.step(readInputs(), dt);
         }
 
-        boolean foundTiles = false;
-        for (int y = TILESHIGH - 1; y >= 0; y--) {
-            int cellsInRow = 0;
-            for (int x = 0; x < TILESWIDE; x++) {
-                for (Tetrad tetrad : tetrads) {
-                    TetradPiece piece = tetrad.getPieceAt(x, y);
-                    if (piece != null) {
-                        cellsInRow++;
-                        foundTiles = true;
-                    }
-                }
-            }
-            if (cellsInRow == 0 && foundTiles) {
-                deleteRow(y);
-            }
+        ArrayList<Tetrad> pieces = engine.getPieces();
+        for (int i = 0; i < pieces.size(); i++) {
+            pieces.get(i).update(dt);
         }
+        Tetrad activeTetrad = engine.getActive();
+        if (activeTetrad != null) {
+            activeTetrad.update(dt);
+        }
+    }
 
-        for (int i = tetrads.size -1; i >= 0; i--) {
-            Tetrad tetrad = tetrads.get(i);
-            if (tetrad.isEmpty()) {
-                tetrads.removeIndex(i);
-                gameState.freeTetrad(tetrad);
+    private int readInputs() {
+        int inputs = Inputs.NONE;
+        PlayerInput.TriggerState state = playerInput.isRightPressed();
+        if (state.pressed) {
+            if (state.triggered) {
+                inputs |= Inputs.RIGHT;
             }
+        } else if (playerInput.isLeftPressed().triggered) {
+            inputs |= Inputs.LEFT;
         }
-
-        boolean boardResolving = false;
-        for (Tetrad tetrad : tetrads) {
-            if (tetrad.resolvingTetrad()) boardResolving = true;
+        if (playerInput.isRotateRight()) {
+            inputs |= Inputs.ROTATE_RIGHT;
+        }
+        if (playerInput.isRotateLeft()) {
+            inputs |= Inputs.ROTATE_LEFT;
+        }
+        if (playerInput.isDownPressed()) {
+            inputs |= Inputs.DOWN;
+        }
+        if (playerInput.isPlungedPressed()) {
+            inputs |= Inputs.PLUNGE;
+        }
+        if (playerInput.isHoldPressed()) {
+            inputs |= Inputs.HOLD;
         }
+        return inputs;
+    }
 
-        if (!boardResolving) {
-            if (activeTetrad == null) {
-                activeTetrad = gameState.popNext();
+    // ------------------------------------------------------------------------------
+    // things the engine wants seen and heard
 
-                activeTetrad.insertIntoBoard(this);
-                if (invalidMove(activeTetrad, Vector2.Zero)) {
-                    //GAME OVER
-                    gameState.gameScreen.gameOver();
-                }
-                timeToFall = fallInterval;
-            }
+    @Override
+    public void spawned(Tetrad tetrad) {
+        tetrad.gameBoard = this;
+        tetrad.snapOrigin();
+    }
 
-            if (!tetrads.contains(tetradToRemove, true)) {
-                tetradToRemove = null;
-            }
-            checkForPullOut();
-
-            if (activeTetrad != null) {
-                PlayerInput.TriggerState state = playerInput.isRightPressed();
-                if (state.pressed) {
-                    if (state.triggered && !invalidMove(activeTetrad, new Vector2(1, 0))) {
-                        activeTetrad.origin.x += 1;
-                    }
-                } else if (playerInput.isLeftPressed().triggered) {
-                    if (!invalidMove(activeTetrad, new Vector2(-1, 0))) {
-                        activeTetrad.origin.x -= 1;
-                    }
-                }
-
-                if (playerInput.isRotateRight()) {
-                    handleRotate(-1);
-                }
-                if (playerInput.isRotateLeft()) {
-                    handleRotate(1);
-                }
-
-                if (playerInput.isDownPressed()) {
-                    moveDown(activeTetrad);
-                }
-
-                if (activeTetrad != null) {
-                    if (playerInput.isPlungedPressed()) {
-                        Tetrad movingTetrad = activeTetrad;
-                        float startY = movingTetrad.origin.y;
-                        int count = 0;
-                        while (moveDown(activeTetrad)) {
-                            count++;
-                        }
-                        if (count >= 3) {
-                            gameState.gameScreen.particles.addPlummetParticles(movingTetrad, startY);
-                        }
-                    }
-                }
-            }
+    @Override
+    public void toppedOut(Tetrad tetrad) {
+        //GAME OVER
+        gameState.gameScreen.gameOver();
+    }
 
-            timeToFall -= dt;
-            if (timeToFall < 0) {
-                moveDown(activeTetrad);
-            }
+    @Override
+    public void rotated(int dir) {
+        playSound((dir < 0) ? Audio.Sounds.rotateLeft : Audio.Sounds.rotateRight);
+    }
 
-            if (activeTetrad != null) {
-                activeTetrad.update(dt);
-            }
+    @Override
+    public void swapRefused() {
+        gameState.gameScreen.playSound(Audio.Sounds.tet_noswap);
+    }
+
+    @Override
+    public void landed(Tetrad tetrad) {
+        tetrad.freeModels();
+        playSound(Audio.Sounds.tet_land);
+    }
+
+    @Override
+    public void plunged(Tetrad tetrad, int rows) {
+        if (rows >= 3) {
+            gameState.gameScreen.particles.addPlummetParticles(tetrad, tetrad.originY + rows);
+        }
+    }
+
+    @Override
+    public void rowsCleared(int rows, int points) {
+        gameState.gameScreen.shaker.addDamage(.2f * rows);
+        if (rows > 0) {
+            gameState.addScore(points, rows);
+            gameState.addCombo();
+            gameState.gameScreen.playSound(Audio.Sounds.tet_clearLine);
+        }
+        else {
+            gameState.breakCombo();
         }
     }
 
+    Vector2 endPos = new Vector2();
+    @Override
+    public void stolen(Tetrad tetrad) {
+        for (int i = 0; i < tetrad.points.size(); i++) {
+            TetradPiece point = tetrad.points.get(i);
+            Vector2 pos = getScreenCoordOfTetradPiece(point);
+            Rectangle endBounds = gameState.gameScreen.gameHud.getNextBox().bounds;
+            endPos.set(endBounds.x + endBounds.width/2f, endBounds.y + endBounds.height/2f);
+            gameState.gameScreen.particles.addTeleportParticles(pos, endPos);
+        }
+    }
 
+    // ------------------------------------------------------------------------------
 
     public void render(SpriteBatch batch) {
 
         batch.setProjectionMatrix(gameState.gameScreen.shaker.getCombinedMatrix());
 
-        batch.draw(gameTexture, gameBounds.x, gameBounds.y + gameBounds.height, gameBounds.width, -gameBounds.height);
+        if (gameTexture != null) {
+            batch.draw(gameTexture, gameBounds.x, gameBounds.y + gameBounds.height, gameBounds.width, -gameBounds.height);
+        }
         // Draw anything else in screen space here
 
 //        if (activeTetrad != null) {
@@ -249,6 +253,12 @@ public class GameBoard {
     }
 
     public void renderFrameBuffer(SpriteBatch batch) {
+        RenderStats.pass(RenderStats.Pass.board);
+        // made on first use so a board can run without a gl context that does frame buffers
+        if (gameFB == null) {
+            gameFB = new FrameBuffer(Pixmap.Format.RGBA8888, (int)gameBounds.width, (int)gameBounds.height, true);
+            gameTexture = gameFB.getColorBufferTexture();
+        }
         gameFB.begin();
         Gdx.gl.glClearColor(0, 0, 0, 0);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT | (Gdx.graphics.getBufferFormat().coverageSampling?GL20.GL_COVERAGE_BUFFER_BIT_NV:0));
@@ -257,303 +267,180 @@ public class GameBoard {
 
         ShaderProgram shader = gameState.gameScreen.assets.boardShader;
         shader.bind();
-        shader.setUniformf("u_viewPos", boardCam.position);
-        shader.setUniformMatrix("u_projTrans", boardCam.combined);
-        shader.setUniformf("u_ambient", ambientColor);
-        shader.setUniformf("u_direction_dir", directionLight);
-        shader.setUniformf("u_direction_color", directionColor);
-        for(PointLight light : pointLights){
-            light.addToShader(shader);
-        }
+        boardLighting.apply(boardCam, ambientColor, directionLight, directionColor, pointLights);
         backPlate.renderMesh(shader);
 
         shader = gameState.gameScreen.assets.blockShader;
 
         shader.bind();
-        shader.setUniformMatrix("u_projTrans", boardCam.combined);
-        shader.setUniformf("u_viewPos", boardCam.position);
-        shader.setUniformf("u_ambient", ambientColor);
-        shader.setUniformf("u_direction_dir", directionLight);
-        shader.setUniformf("u_direction_color", directionColor);
+        blockLighting.apply(boardCam, ambientColor, directionLight, directionColor, pointLights);
         shader.setUniformi("u_texture1", 1);
         gameState.gameScreen.assets.noiseTexture.bind(1);
         shader.setUniformi("u_texture", 0);
         gameState.gameScreen.assets.blockTextures.bind(0);
 
-
-        for(PointLight light : pointLights){
-            light.addToShader(shader);
-        }
-
-        for (Tetrad tetrad : tetrads) {
-            tetrad.renderModels(shader);
+        // locked blocks all in one draw, only the falling piece, its ghost and anything animating change every frame
+        float alpha = gameState.gameScreen.game.getStepAlpha();
+        Profiler.begin(Profiler.Section.boardMesh);
+        boardMesh.update(engine.getPieces(), engine.getPlacedVersion(), alpha);
+        Tetrad activeTetrad = engine.getActive();
+        if (activeTetrad != null) {
+            activeTetrad.buildModels(alpha);
         }
+        gameState.assets.tetradVertices.upload();
+        Profiler.end(Profiler.Section.boardMesh);
+        boardMesh.render(shader);
         if (activeTetrad != null) {
             activeTetrad.renderModels(shader);
         }
 
-        Array<ParticleDecal> decals = gameState.gameScreen.particles.activeDecals;
-        for (ParticleDecal decal : decals) {
-            if (decal.ready) {
-                decalBatch.add(decal.decal);
-            }
+        RenderStats.pass(RenderStats.Pass.decals);
+        if (gameState.gameScreen.game.ownsParticles(gameState.gameScreen)) {
+            gameState.gameScreen.particles.renderDecals(boardCam);
         }
-        decalBatch.flush();
 
         Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
         gameFB.end();
+        RenderStats.pass(RenderStats.Pass.other);
     }
 
 
-    private void handleRotate(int dir) {
-        activeTetrad.rotate(dir);
-        if (invalidMove(activeTetrad, Vector2.Zero)) {
-            if (collidesWithWalls(activeTetrad, Vector2.Zero)) {
-                //Test one away first
-                if (!invalidMove(activeTetrad, new Vector2(-1, 0))) {
-                    activeTetrad.origin.x -= 1;
-                } else if (!invalidMove(activeTetrad, new Vector2(1, 0))) {
-                    activeTetrad.origin.x += 1;
-                } else if (!invalidMove(activeTetrad, new Vector2(-2, 0))) {
-                    activeTetrad.origin.x -= 2;
-                } else if (!invalidMove(activeTetrad, new Vector2(2, 0))) {
-                    activeTetrad.origin.x += 2;
-                } else {
-                    activeTetrad.rotate(-dir);
-                }
-            } else {
-                activeTetrad.rotate(-dir);
-            }
-        }
+    private void playSound(Audio.Sounds sound) {
+        this.playSound(sound, 1f);
     }
 
-    public boolean invalidMove(Tetrad tetrad, Vector2 dir) {
-        return collidesWithBlocks(tetrad, dir) || collidesWithWalls(tetrad, dir);
+    private void playSound(Audio.Sounds sound, float volume) {
+        gameState.gameScreen.game.audio.playSound(sound, volume);
     }
 
-    Vector2 testOrigin = new Vector2();
-
-    public boolean collidesWithBlocks(Tetrad tetrad, Vector2 dir) {
-        if (tetrad.origin == null) return false;
-        testOrigin.set(tetrad.origin.x + dir.x, tetrad.origin.y + dir.y);
-        for (int i = 0; i < tetrad.points.size; i++) {
-            TetradPiece point = tetrad.points.get(i);
-            for (int j = 0; j < tetrads.size; j++) {
-                Tetrad placedPiece = tetrads.get(j);
-                if (placedPiece == tetrad) continue;
-                for (TetradPiece placedPoint : placedPiece.points) {
-                    if (placedPiece.origin == null) continue;
-                    if (point.x + testOrigin.x == placedPoint.x + placedPiece.origin.x &&
-                            point.y + testOrigin.y == placedPoint.y + placedPiece.origin.y) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
+    Vector3 tempVec3 = new Vector3();
+    public Vector2 getScreenCoordsOfTetrad(Tetrad tetrad) {
+        tempVec3.set(tetrad.getCenter().x + tetrad.originX, tetrad.getCenter().y + tetrad.originY, 1);
+        return getScreenCoordFromGameCoord(tempVec3);
     }
 
-    public boolean collidesWithWalls(Tetrad tetrad, Vector2 dir) {
-        if (tetrad.origin == null) return false;
-        testOrigin.set(tetrad.origin.x + dir.x, tetrad.origin.y + dir.y);
-        for (TetradPiece point : tetrad.points) {
-            if (point.x + testOrigin.x < 0 || point.x + testOrigin.x >= TILESWIDE) return true;
-            if (point.y + testOrigin.y < 0 || point.y + testOrigin.y > TILESHIGH) return true;
-        }
-        return false;
+    public Vector2 getScreenCoordOfTetradPiece(TetradPiece piece) {
+        tempVec3.set(piece.owner.originX + piece.x + .5f, piece.owner.originY + piece.y + .5f, .5f);
+        return getScreenCoordFromGameCoord(tempVec3);
     }
 
-    public Tetrad getFreeBottomPiece() {
-        OrderedSet<Tetrad> bottomPieces = new OrderedSet<>();
-        for (int x = 0; x < TILESWIDE; x++) {
-            for (Tetrad tetrad : tetrads) {
-                if (tetrad.containsPoint(x, 0)) {
-                    bottomPieces.add(tetrad);
-                }
-            }
-        }
-        Array<Tetrad> tetradArray = bottomPieces.orderedItems();
-        tetradArray.shuffle();
-
-        if (tetradArray.size > 0) {
-            return tetradArray.first();
-
-        }
-        return null;
+    Vector2 tempVec2 = new Vector2();
+    public Vector2 getScreenCoordFromGameCoord(Vector3 gameCoord) {
+        boardCam.project(gameCoord, gameBounds.x, gameBounds.y, gameBounds.width, gameBounds.height);
+        return tempVec2.set(gameCoord.x, gameCoord.y);
     }
 
-    public boolean moveDown(Tetrad tetrad) {
-        boolean valid = false;
-
-        if (invalidMove(tetrad, new Vector2(0, -1))) {
-            tetrads.add(activeTetrad);
-            playSound(Audio.Sounds.tet_land);
-            activeTetrad = null;
-            fallInterval = Math.max(.2f, fallInterval - .005f);
-
-            // TODO make this more async
-            checkForFullRows();
-
-            if (!tetrads.contains(tetradToRemove, true)) {
-                tetradToRemove = null;
-            }
+    public Tetrad getActiveTetrad() {
+        return engine.getActive();
+    }
 
+    public Tetrad getHoldTetrad() {
+        return engine.getHold();
+    }
 
-        } else {
-            tetrad.origin.y -= 1;
-            valid = true;
-        }
-        timeToFall = fallInterval;
-        return valid;
+    public Tetrad getTetradToRemove() {
+        return engine.getPieceToRemove();
     }
 
-    Vector2 endPos = new Vector2();
-    private void checkForPullOut() {
-        if (!tetrads.contains(tetradToRemove, true)){
-            tetradToRemove = null;
-        }
-        if (pulloutEnabled) {
-            if (tetradToRemove != null) {
-                gameState.setNext(new Tetrad(tetradToRemove));
-                for (TetradPiece point : tetradToRemove.points) {
-                    point.setDestroyTimer(0, .4f, TetradPiece.RemoveReason.STOLEN);
-                    Vector2 pos = getScreenCoordOfTetradPiece(point);
-                    Rectangle endBounds = gameState.gameScreen.gameHud.getNextBox().bounds;
-                    endPos.set(endBounds.x + endBounds.width/2f, endBounds.y + endBounds.height/2f);
-                    gameState.gameScreen.particles.addTeleportParticles(pos, endPos);
-                }
-
-
-            } else {
-                tetradToRemove = getFreeBottomPiece();
-            }
-            pulloutEnabled = false;
-        }
+    public boolean canTransportTetrad() {
+        return engine.canTransportPiece();
     }
 
-    public void checkForFullRows() {
-        int rowsCleared = 0;
-        for (int y = TILESHIGH - 1; y >= 0; y--) {
-            boolean emptySpot = false;
-            for (int x = 0; x < TILESWIDE; x++) {
-                boolean tileFilled = false;
-                for (Tetrad tetrad : tetrads) {
-                    if (tetrad.containsPoint(x, y)) {
-                        tileFilled = true;
-                    }
-                }
-                if (!tileFilled) {
-                    emptySpot = true;
-                }
-            }
-            if (!emptySpot) {
-                markRowForDeletion(y, .2f);
-//                y += 1;
-                rowsCleared++;
-            }
+    public boolean canShootBlock() {
+        return engine.canShootBlock();
+    }
 
-        }
+    public Tetrad getRandomTetrad() {
+        int count = engine.getPieces().size();
+        return (count > 0) ? engine.getPieces().get(MathUtils.random(count - 1)) : null;
+    }
 
-        gameState.gameScreen.shaker.addDamage(.2f * rowsCleared);
-
-        float comboMultiplier = 1 + Math.max(gameState.getCombo(), 10) / 10;
-        switch (rowsCleared) {
-            case 1:
-                gameState.addScore(Math.round(100 * comboMultiplier), 1);
-                break;
-            case 2:
-                gameState.addScore(Math.round(300 * comboMultiplier), 2);
-                break;
-            case 3:
-                gameState.addScore(Math.round(500 * comboMultiplier), 3);
-                break;
-            case 4:
-                gameState.addScore(Math.round(800 * comboMultiplier), 4);
-                break;
-        }
-        if (rowsCleared > 0) {
-            gameState.addCombo();
-            gameState.gameScreen.playSound(Audio.Sounds.tet_clearLine);
-        }
-        else {
-            gameState.breakCombo();
+    public TetradPiece getRandomBlock() {
+        Tetrad tetrad = getRandomTetrad();
+        if (tetrad != null && !tetrad.isEmpty()) {
+            return tetrad.points.get(MathUtils.random(tetrad.points.size() - 1));
         }
+        return null;
+    }
 
-        previousBlockCleared = rowsCleared > 0 ? true : false;
+    public void crash() {
+        gameState.gameScreen.shaker.addDamage(100);
+        gameState.gameScreen.playSound(Audio.Sounds.crash);
+        enablePullout();
 
     }
 
-    private void deleteRow(int y) {
-        for (Tetrad tetrad : tetrads) {
-            tetrad.deleteRow(y);
+    // outside events only reach the engine live, a replay brings its own
+    public void enablePullout() {
+        if (replay == null) {
+            engine.enablePullout();
         }
     }
 
-    private void playSound(Audio.Sounds sound) {
-        this.playSound(sound, 1f);
-    }
-
-    private void playSound(Audio.Sounds sound, float volume) {
-        gameState.gameScreen.game.audio.playSound(sound, volume);
+    public void shoot(TetradPiece piece) {
+        if (replay == null) {
+            engine.shoot(piece);
+        }
     }
 
-    private void markRowForDeletion(int y, float delay) {
-        for (Tetrad tetrad : tetrads) {
-            for (TetradPiece piece : tetrad.points) {
-                if (tetrad.origin.y + piece.y == y) {
-//                    piece.setDestroyTimer(delay, (tetrad.origin.x + piece.x) * .1f, TetradPiece.RemoveReason.CLEARED);
-                    piece.setDestroyTimer(MathUtils.random(.1f, .5f), MathUtils.random(.6f, 1f), TetradPiece.RemoveReason.CLEARED);
-//                    gameState.gameScreen.particles.addPieceDeleteParticles(gameBounds.x + (tetrad.origin.x + piece.x + .5f) * Tetrad.POINT_WIDTH,
-//                            gameBounds.y + (tetrad.origin.y + piece.y + .5f) * Tetrad.POINT_WIDTH,
-//                            tetrad.color);
-                }
-            }
+    public void discardHold() {
+        if (replay == null) {
+            engine.discardHold();
         }
     }
 
-    Vector3 tempVec3 = new Vector3();
-    public Vector2 getScreenCoordsOfTetrad(Tetrad tetrad) {
-        tempVec3.set(tetrad.getCenter().x + tetrad.origin.x, tetrad.getCenter().y + tetrad.origin.y, 1);
-        return getScreenCoordFromGameCoord(tempVec3);
+    public void discardNext() {
+        if (replay == null) {
+            engine.discardNext();
+        }
     }
 
-    public Vector2 getScreenCoordOfTetradPiece(TetradPiece piece) {
-        tempVec3.set(piece.owner.origin.x + piece.x + .5f, piece.owner.origin.y + piece.y + .5f, .5f);
-        return getScreenCoordFromGameCoord(tempVec3);
+    // the whole board and the score shown for it, hand it back with freeSnapshot when done with it
+    public BoardSnapshot snapshot() {
+        BoardSnapshot snapshot = snapshotPool.obtain();
+        engine.snapshot(snapshot);
+        snapshot.write(gameState.getScore());
+        snapshot.write(gameState.getLineCleared());
+        snapshot.write(gameState.getCombo());
+        return snapshot;
     }
 
-    Vector2 tempVec2 = new Vector2();
-    public Vector2 getScreenCoordFromGameCoord(Vector3 gameCoord) {
-        boardCam.project(gameCoord, gameBounds.x, gameBounds.y, gameBounds.width, gameBounds.height);
-        return tempVec2.set(gameCoord.x, gameCoord.y);
-    }
+    public void restore(BoardSnapshot snapshot) {
+        engine.restore(snapshot);
+        gameState.setScore(snapshot.read(), snapshot.read(), snapshot.read());
 
-    public boolean canTransportTetrad() {
-        return tetrads.size >= minTetradsToTransport;
+        // pieces come back out of the pool, so they need pointing at the board again
+        for (Tetrad tetrad : engine.getPieces()) {
+            tetrad.gameBoard = this;
+        }
+        if (engine.getActive() != null) {
+            engine.getActive().gameBoard = this;
+        }
+        if (engine.getHold() != null) {
+            engine.getHold().gameBoard = this;
+        }
     }
 
-    public boolean canShootBlock() {
-        return tetrads.size >= minTetradsToShoot;
+    public void freeSnapshot(BoardSnapshot snapshot) {
+        snapshotPool.free(snapshot);
     }
 
-    public Tetrad getRandomTetrad() {
-        return tetrads.random();
+    public boolean isReplay() {
+        return replay != null;
     }
 
-    public TetradPiece getRandomBlock() {
-        Tetrad tetrad = tetrads.random();
-        if (tetrad != null) {
-            return tetrad.points.random();
+    // writes the recording of this game out next to the game, desktop only since the web build has nowhere to put it
+    public void saveRecording() {
+        InputLog recording = engine.getRecorder();
+        if (recording == null) return;
+        recording.finish(engine);
+        engine.setRecorder(null);
+        if (Gdx.app.getType() != Application.ApplicationType.Desktop) return;
+        try {
+            Gdx.files.local("replays/" + TimeUtils.millis() + ".ld47").writeBytes(recording.toByteArray(), false);
+        } catch (Exception e) {
+            Gdx.app.error("GameBoard", "Unable to save replay", e);
         }
-        return null;
-    }
-
-    public void crash() {
-        gameState.gameScreen.shaker.addDamage(100);
-        gameState.gameScreen.playSound(Audio.Sounds.crash);
-        pulloutEnabled = true;
-
     }
 
     public boolean isPaused() {
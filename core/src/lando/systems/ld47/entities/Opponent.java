@@ -1,6 +1,7 @@
 package lando.systems.ld47.entities;
 
 import aurelienribon.tweenengine.Tween;
+import aurelienribon.tweenengine.TweenCallback;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -32,6 +33,10 @@ public class Opponent {
     private float offsetY = 0; // for idle hovering
 
     public final Vector2 position = new Vector2();
+    // position at the end of the last two updates, drawn in between
+    private final Vector2 previousPosition = new Vector2();
+    private final Vector2 currentPosition = new Vector2();
+    private boolean snapPosition = true;
     public Vector2 size = new Vector2();
     public Direction direction = Direction.right;
 
@@ -57,6 +62,7 @@ public class Opponent {
         shotOffset = new Vector2(41, 39).scl(carScale);
 
         this.ai = new SassiAI(screen, this);
+        this.shot = new Fireball(this);
     }
 
     public void setState(State state) {
@@ -114,6 +120,10 @@ public class Opponent {
         }
 
         ai.update(dt);
+
+        previousPosition.set(snapPosition ? position : currentPosition);
+        currentPosition.set(position);
+        snapPosition = false;
     }
 
     private void setAnimState() {
@@ -136,23 +146,35 @@ public class Opponent {
             }
             // batch.draw(screen.assets.whitePixel, position.x, position.y + offsetY, size.x, size.y);
 
+            float alpha = screen.game.getStepAlpha();
+            float x = MathUtils.lerp(previousPosition.x, currentPosition.x, alpha);
+            float y = MathUtils.lerp(previousPosition.y, currentPosition.y, alpha);
             TextureRegion texture = animation.getKeyFrame(animationTime);
-            batch.draw(texture, position.x, position.y + offsetY, size.x / 2, size.y / 2, size.x, size.y,
+            batch.draw(texture, x, y + offsetY, size.x / 2, size.y / 2, size.x, size.y,
                     (direction == Direction.right) ? -1 : 1, 1, 0);
         }
     }
 
-    public Vector2 getFireballCenter() {
+    public Vector2 getFireballCenter(Vector2 out) {
         float x = (direction == Direction.left) ? shotOffset.x : size.x - shotOffset.x;
-        return new Vector2(position.x + x, position.y + offsetY + shotOffset.y);
+        return out.set(position.x + x, position.y + offsetY + shotOffset.y);
     }
 
     public float getWidth() {
         return (animation != null) ? animation.getKeyFrame(0).getRegionWidth() : 0;
     }
 
+    // the one in the air, null between shots
     private Fireball fireball;
+    private final Fireball shot;
     private IShootable target;
+    // kept rather than written inline, a lambda that uses the opponent is a new object every shot
+    private final TweenCallback fireballLanded = (type, source) -> {
+        screen.playSound(Audio.Sounds.fireballExplosion);
+        target.hit();
+        fireball = null;
+        isShooting = false;
+    };
     public void shoot(IShootable target) {
         if (isShooting) {
             return;
@@ -164,19 +186,14 @@ public class Opponent {
         screen.playSound(Audio.Sounds.dec_shoot);
 
         Vector2 t = target.getTarget();
-        fireball = new Fireball(this, t);
+        fireball = shot.aim(t);
 
         float duration = Math.abs(t.x - fireball.position.x) / 200;
 
         fireTween = Tween.to(fireball.position, Vector2Accessor.XY, duration)
                 .target(t.x, t.y)
                 .start(screen.tween)
-                .setCallback((i, s)-> {
-                    screen.playSound(Audio.Sounds.fireballExplosion);
-                    target.hit();
-                    fireball = null;
-                    isShooting = false;
-                });
+                .setCallback(fireballLanded);
     }
 
     // pause and disabled stuff
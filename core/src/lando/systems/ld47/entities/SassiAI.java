@@ -215,23 +215,42 @@ public class SassiAI {
 
         setOrientation(dy);
 
-        Vector2[] wayPoints = getWayPoints(pos, movePos, action);
-        dx += (turnWidth * wayPoints.length * 2);
+        int wayPointCount = getWayPoints(pos, movePos, action);
+        dx += (turnWidth * wayPointCount * 2);
 
         float moveTime = (float)Math.sqrt(dx*dx + dy*dy) / speed;
 
         Tween moveTween = Tween.to(pos, Vector2Accessor.XY, moveTime);
-        for (Vector2 wp : wayPoints) {
-            moveTween.waypoint(wp.x, wp.y);
+        for (int i = 0; i < wayPointCount; i++) {
+            moveTween.waypoint(wayPoints[i].x, wayPoints[i].y);
         }
         moveTween.target(movePos.x, movePos.y).ease(TweenEquations.easeInOutCubic);
 
         opponent.setState(Opponent.State.moving);
         screen.playSound(Audio.Sounds.dec_move);
 
+        movingFor = action;
         currentTimeline = Timeline.createSequence().push(moveTween)
                 .start(screen.game.tween)
-                .setCallback((i, s) -> completeMove(action));
+                .setCallback(moveDone);
+    }
+
+    // the timeline callbacks are made once, a lambda that uses the ai is a new object every time it's written out
+    private Actions movingFor;
+    private final TweenCallback moveDone = (type, source) -> completeMove(movingFor);
+    private final TweenCallback rammed = (type, source) -> completeRam();
+    private final TweenCallback teleported = (type, source) -> completeTeleport();
+
+    private void completeRam() {
+        gameBoard.crash();
+        teleporting = true;
+        teleportTime = teleportDuration;
+    }
+
+    private void completeTeleport() {
+        screen.playSound(Audio.Sounds.dec_teleport);
+        gameBoard.enablePullout();
+        animating = false;
     }
 
     private void completeMove(Actions action) {
@@ -299,18 +318,15 @@ public class SassiAI {
                 .push(Tween.to(pos, Vector2Accessor.X, 0.2f).target(pos.x + xHit))
                 .push(Tween.to(pos, Vector2Accessor.X, 0.2f).target(pos.x - xHit))
                 .start(screen.tween)
-                .setCallback((s, i) -> {
-                        gameBoard.crash();
-                        teleporting = true;
-                        teleportTime = teleportDuration;
-                    });
+                .setCallback(rammed);
     }
 
-    private final Vector2[] emptyWayPoints = new Vector2[] {};
-    private Vector2[] getWayPoints(Vector2 pos, Vector2 movePos, Actions action) {
+    // filled in by getWayPoints, which returns how many of them it used
+    private final Vector2[] wayPoints = new Vector2[] { new Vector2(), new Vector2() };
+    private int getWayPoints(Vector2 pos, Vector2 movePos, Actions action) {
 
         float dy = Math.abs(pos.y - movePos.y);
-        if (dy < minTurnHeight) { return emptyWayPoints; };
+        if (dy < minTurnHeight) { return 0; };
 
         boolean up = pos.y < movePos.y;
         boolean right = pos.x < movePos.x;
@@ -322,45 +338,38 @@ public class SassiAI {
                 // moving to next or hold from right side
                 float yOffset = (Math.abs(pos.y - movePos.y)) / 2 * ((up) ? 1 : -1);
 
-                return new Vector2[]{
-                        new Vector2(pos.x - turnWidth, pos.y + yOffset)
-                };
+                wayPoints[0].set(pos.x - turnWidth, pos.y + yOffset);
+                return 1;
             }
         } else if (dx < sPathXDiff) {
             // s path
-            if (dx < minSPathXDiff) { return emptyWayPoints; }
+            if (dx < minSPathXDiff) { return 0; }
 
             float yOffset = (Math.abs(pos.y - movePos.y)) / 3 * ((up) ? 1 : -1);
             float xOffset = turnWidth * ((movePos.x < centerX) ? 1 : -1);
 
-            return new Vector2[]{
-                    new Vector2(pos.x + xOffset, pos.y + yOffset),
-                    new Vector2(movePos.x - xOffset, pos.y + (yOffset * 2f))
-            };
+            wayPoints[0].set(pos.x + xOffset, pos.y + yOffset);
+            wayPoints[1].set(movePos.x - xOffset, pos.y + (yOffset * 2f));
+            return 2;
         } else if (right && movePos.x > centerX || !right && movePos.x < centerX) {
             float yOffset = (Math.abs(pos.y - movePos.y)) / 4 * ((up) ? -1 : 1);
             float xOffset = turnWidth * ((movePos.x < centerX) ? 1 : -1);
-            return new Vector2[]{
-                    new Vector2(movePos.x - xOffset, movePos.y + yOffset)
-            };
+            wayPoints[0].set(movePos.x - xOffset, movePos.y + yOffset);
+            return 1;
         }
 
-        return emptyWayPoints;
+        return 0;
     }
 
     private void teleportBlock() {
         teleporting = false;
-        Tetrad piece = gameBoard.tetradToRemove;
+        Tetrad piece = gameBoard.getTetradToRemove();
         if (piece != null) {
             Vector2 pos = gameBoard.getScreenCoordsOfTetrad(piece);
             currentTimeline = Timeline.createSequence().push(
                     Tween.to(opponent.position, Vector2Accessor.XY, 1.5f)
                     .target(pos.x -opponent.size.x/2, pos.y + Tetrad.POINT_WIDTH))
-            .setCallback((s, i) -> {
-                screen.playSound(Audio.Sounds.dec_teleport);
-                gameBoard.pulloutEnabled = true;
-                animating = false;
-            }).start(screen.tween);
+            .setCallback(teleported).start(screen.tween);
         } else {
             animating = false;
         }
@@ -7,12 +7,13 @@ import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Pool;
-import lando.systems.ld47.Audio;
 import lando.systems.ld47.Game;
+import lando.systems.ld47.engine.Piece;
+import lando.systems.ld47.engine.TetradShape;
+import lando.systems.ld47.utils.VertexArena;
 
-public class Tetrad implements Pool.Poolable {
+public class Tetrad extends Piece<TetradPiece> implements Pool.Poolable {
 
     enum FACE {TOP, LEFT, RIGHT, FRONT}
     public static float POINT_WIDTH = 40;
@@ -24,89 +25,91 @@ public class Tetrad implements Pool.Poolable {
 
     public GameBoard gameBoard;
     private Game game;
-    public Array<TetradPiece> points;
     private Vector2 center = new Vector2();
 
     public Vector2 position;
-    public Vector2 origin;
-    public Color color;
-    private int type;
-    private int bounds;
+    // board origin at the end of the last two updates, the mesh is drawn in between
+    private float previousOriginX;
+    private float previousOriginY;
+    private int lastOriginX;
+    private int lastOriginY;
+    private boolean snapOrigin = true;
+    public final Color color = new Color();
     public boolean flashing;
     private float accum = 0;
     public float scale = 1;
 
     // Mesh things
-    private static final int NUM_COMPONENTS_POSITION = 3;
-    private static final int NUM_COMPONENTS_NORMAL = 3;
-    private static final int NUM_COMPONENTS_TEXTURE = 2;
-    private static final int NUM_COMPONENTS_COLOR = 4;
-    private static final int NUM_COMPONENTS_PER_VERTEX = NUM_COMPONENTS_POSITION + NUM_COMPONENTS_TEXTURE + NUM_COMPONENTS_COLOR + NUM_COMPONENTS_NORMAL;
-    private static final int MAX_TRIANGLES = 1000;
-    private static final int MAX_NUM_VERTICES = MAX_TRIANGLES * 3;
-    private Mesh mesh;
+    static final int NUM_COMPONENTS_POSITION = 3;
+    static final int NUM_COMPONENTS_NORMAL = 3;
+    static final int NUM_COMPONENTS_TEXTURE = 2;
+    // rgba packed into a single float
+    static final int NUM_COMPONENTS_COLOR = 1;
+    static final int NUM_COMPONENTS_PER_VERTEX = NUM_COMPONENTS_POSITION + NUM_COMPONENTS_TEXTURE + NUM_COMPONENTS_COLOR + NUM_COMPONENTS_NORMAL;
+    static final int VERTICES_PER_QUAD = 4;
+    static final int FLOATS_PER_QUAD = VERTICES_PER_QUAD * NUM_COMPONENTS_PER_VERTEX;
+    // 4 faces for every block, plus the same again for the ghost
+    private static final int MAX_NUM_QUADS = TetradShape.MAX_SIZE * 4 * 2;
+    // the arena slice this tetrad draws from while it is the falling piece
+    private VertexArena arena;
+    private int slice = -1;
     private float[] vertices;
     private int verticesIndex;
-
-    public Tetrad(Tetrad clone) {
-        this(clone.game);
-        this.points.clear();
-        for (TetradPiece point : clone.points) {
-            this.points.add(new TetradPiece(point));
-        }
-        this.position.set(clone.position);
-        this.origin = new Vector2(clone.origin);
-        this.bounds = clone.bounds;
-        this.center.set(clone.center);
-    }
+    private int quadCount;
 
     public Tetrad(Game game) {
         this.game = game;
         position = new Vector2(0, 0);
+        reset();
+        reserveBlocks(TetradShape.MAX_SIZE);
+    }
 
-        points = new Array<>();
-
-        this.mesh = new Mesh(false, MAX_NUM_VERTICES, 0,
+    static VertexAttribute[] vertexAttributes() {
+        return new VertexAttribute[] {
                 new VertexAttribute(VertexAttributes.Usage.Position,           NUM_COMPONENTS_POSITION, "a_position"),
                 new VertexAttribute(VertexAttributes.Usage.Normal,        NUM_COMPONENTS_NORMAL, "a_normal"),
-                new VertexAttribute(VertexAttributes.Usage.ColorUnpacked,        NUM_COMPONENTS_COLOR, "a_color"),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked,        4, "a_color"),
                 new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, NUM_COMPONENTS_TEXTURE,  "a_texCoord0")
-        );
-
-        this.vertices = new float[MAX_NUM_VERTICES * NUM_COMPONENTS_PER_VERTEX];
+        };
+    }
 
-        reset();
+    // after a big clear most of the board is sliding down at once, and each of those tetrads draws from a slice
+    public static VertexArena newVertexArena() {
+        return new VertexArena(MAX_NUM_QUADS, 64, vertexAttributes());
     }
 
     @Override
     public void reset() {
         position.set(0,0);
-        buildNewPiece();
-        this.verticesIndex = 0;
-
+        clearPoints();
+        onBoard = false;
+        snapOrigin = true;
+        freeModels();
     }
 
     public void update(float dt) {
         accum += dt;
 
         // Allow tetrads to live outside of the gameboard
-        if (origin != null) {
-            position.set(gameBoard.gameBounds.x + origin.x * POINT_WIDTH, gameBoard.gameBounds.y + origin.y * POINT_WIDTH);
+        if (onBoard) {
+            position.set(gameBoard.gameBounds.x + originX * POINT_WIDTH, gameBoard.gameBounds.y + originY * POINT_WIDTH);
         }
-
-        for (int i = points.size -1; i >= 0; i--) {
-            TetradPiece point = points.get(i);
-            point.update(dt);
-            if (point.remove){
-                points.removeIndex(i);
-            }
+        if (snapOrigin) {
+            lastOriginX = originX;
+            lastOriginY = originY;
+            snapOrigin = false;
         }
+        previousOriginX = lastOriginX;
+        previousOriginY = lastOriginY;
+        lastOriginX = originX;
+        lastOriginY = originY;
 
         int minX = 4;
         int maxX = -1;
         int minY = 4;
         int maxY = -1;
-        for (TetradPiece point : points) {
+        for (int i = 0; i < points.size(); i++) {
+            TetradPiece point = points.get(i);
             minX = Math.min(point.x, minX);
             maxX = Math.max(point.x, maxX);
             minY = Math.min(point.y, minY);
@@ -117,13 +120,17 @@ public class Tetrad implements Pool.Poolable {
 
         center.set((deltaX + minX)/2f, (deltaY + minY)/2f);
 
-        flashing = gameBoard.tetradToRemove == this;
+        flashing = gameBoard.getTetradToRemove() == this;
         if (flashing) {
             color.a = (1.5f + MathUtils.sin(accum * 10f) * .5f) / 2f;
         } else {
             color.a = 1;
         }
-        buildMesh();
+    }
+
+    // for pieces that jump rather than move, like one just spawned or swapped in from hold
+    public void snapOrigin() {
+        snapOrigin = true;
     }
 
     public void render(SpriteBatch batch) {
@@ -133,42 +140,108 @@ public class Tetrad implements Pool.Poolable {
             batch.setColor(Color.WHITE);
         }
         TextureRegion blockImage = game.assets.blockFaces[type];
-        for (TetradPiece point : points) {
+        for (int i = 0; i < points.size(); i++) {
+            TetradPiece point = points.get(i);
             if (!point.remove) {
                 batch.draw(blockImage, position.x + (POINT_WIDTH * scale * point.x), position.y + (POINT_WIDTH * scale * point.y), POINT_WIDTH * scale, POINT_WIDTH * scale);
             }
         }
     }
 
-    private void buildMesh(){
+    // writes this tetrad's vertices into its arena slice, the arena is uploaded once everything has been built
+    public void buildModels(float alpha) {
+        if (slice < 0) {
+            arena = game.assets.tetradVertices;
+            slice = arena.obtain();
+        }
+        int start = arena.getOffset(slice);
+        quadCount = (writeModel(arena.getVertices(), start, alpha, null) - start) / FLOATS_PER_QUAD;
+    }
+
+    boolean hasModels() {
+        return slice >= 0;
+    }
+
+    // once locked the board mesh draws it, so the slice can go to the next active piece
+    public void freeModels() {
+        if (slice >= 0) {
+            arena.free(slice);
+            slice = -1;
+        }
+        quadCount = 0;
+    }
+
+    // writes the vertices starting at index and returns where they end
+    // faces against a filled cell in occupied (one bitmask per board row) are left out, null only checks the tetrad's own blocks
+    int writeModel(float[] target, int index, float alpha, int[] occupied) {
+        vertices = target;
+        verticesIndex = index;
+        buildMesh(alpha, occupied);
+        vertices = null;
+        return verticesIndex;
+    }
+
+    // anything that changes how a locked tetrad looks from one frame to the next
+    boolean isAnimating() {
+        if (flashing || previousOriginX != originX || previousOriginY != originY) return true;
+        for (int i = 0; i < points.size(); i++) {
+            if (points.get(i).hasDestroyTimer()) return true;
+        }
+        return false;
+    }
+
+    private boolean isFilled(int[] occupied, int x, int y) {
+        if (occupied == null) return containsPoint(x, y);
+        if (x < 0 || x >= GameBoard.TILESWIDE || y < 0 || y >= occupied.length) return false;
+        return (occupied[y] & (1 << x)) != 0;
+    }
+
+    private void buildMesh(float alpha, int[] occupied){
+        float drawX = MathUtils.lerp(previousOriginX, originX, alpha);
+        float drawY = MathUtils.lerp(previousOriginY, originY, alpha);
         int downDist = 0;
         float offset = 0;
-        boolean isActive = gameBoard.activeTetrad == this;
+        boolean isActive = gameBoard.getActiveTetrad() == this;
         if (isActive) {
             offset = .4f;
-            while(!gameBoard.invalidMove(this, new Vector2(0, downDist))) {
-                downDist --;
-            }
-            downDist++;
+            downDist = -gameBoard.engine.dropDistance(this);
         }
 
-        verticesIndex = 0;
-        for (TetradPiece point : points) {
+        // the camera looks up the board from the front, so only the top, the sides and the front can ever show
+        for (int i = 0; i < points.size(); i++) {
+            TetradPiece point = points.get(i);
             if (point.remove){
                 continue;
             }
-            computeFace(origin.x + point.x, origin.y + point.y, offset, color, FACE.TOP, type, point );
-            computeFace(origin.x + point.x, origin.y + point.y, offset, color, FACE.LEFT, type, point );
-            computeFace(origin.x + point.x, origin.y + point.y, offset, color, FACE.RIGHT, type, point );
-            computeFace(origin.x + point.x, origin.y + point.y, offset, color, FACE.FRONT, type, point );
+            int cellX = originX + point.x;
+            int cellY = originY + point.y;
+            computeFace(drawX + point.x, drawY + point.y, offset, color, FACE.TOP, type, point );
+            if (!isFilled(occupied, cellX - 1, cellY)) {
+                computeFace(drawX + point.x, drawY + point.y, offset, color, FACE.LEFT, type, point );
+            }
+            if (!isFilled(occupied, cellX + 1, cellY)) {
+                computeFace(drawX + point.x, drawY + point.y, offset, color, FACE.RIGHT, type, point );
+            }
+            if (!isFilled(occupied, cellX, cellY - 1)) {
+                computeFace(drawX + point.x, drawY + point.y, offset, color, FACE.FRONT, type, point );
+            }
         }
 
         if (isActive && gameBoard.gameState.isGhostVisible()) {
-            for (TetradPiece point : points) {
-                computeGhostFace(origin.x + point.x, downDist + origin.y + point.y, offset, ghostColor, FACE.TOP );
-                computeGhostFace(origin.x + point.x, downDist + origin.y + point.y, offset, ghostColor, FACE.LEFT );
-                computeGhostFace(origin.x + point.x, downDist + origin.y + point.y, offset, ghostColor, FACE.RIGHT );
-                computeGhostFace(origin.x + point.x, downDist + origin.y + point.y, offset, ghostColor, FACE.FRONT );
+            for (int i = 0; i < points.size(); i++) {
+                TetradPiece point = points.get(i);
+                int cellX = originX + point.x;
+                int cellY = originY + point.y;
+                computeGhostFace(drawX + point.x, downDist + originY + point.y, offset, ghostColor, FACE.TOP );
+                if (!containsPoint(cellX - 1, cellY)) {
+                    computeGhostFace(drawX + point.x, downDist + originY + point.y, offset, ghostColor, FACE.LEFT );
+                }
+                if (!containsPoint(cellX + 1, cellY)) {
+                    computeGhostFace(drawX + point.x, downDist + originY + point.y, offset, ghostColor, FACE.RIGHT );
+                }
+                if (!containsPoint(cellX, cellY - 1)) {
+                    computeGhostFace(drawX + point.x, downDist + originY + point.y, offset, ghostColor, FACE.FRONT );
+                }
             }
         }
     }
@@ -233,7 +306,7 @@ public class Tetrad implements Pool.Poolable {
                 break;
 
         }
-        if (gameBoard.tetradToRemove == this){
+        if (gameBoard.getTetradToRemove() == this){
             tempColor.b = 1.0f;
         } else {
             tempColor.b = 0;
@@ -285,17 +358,17 @@ public class Tetrad implements Pool.Poolable {
         addFaceVerts(tempColor);
     }
 
+    // one quad, LL UL LR UR, the shared quad indices make the two triangles out of it
     private void addFaceVerts(Color color ) {
+        float packedColor = Color.toFloatBits(MathUtils.clamp(color.r, 0f, 1f), color.g, color.b, color.a);
+
         vertices[verticesIndex++] = LL.x;
         vertices[verticesIndex++] = LL.y;
         vertices[verticesIndex++] = LL.z;
         vertices[verticesIndex++] = NOR.x;
         vertices[verticesIndex++] = NOR.y;
         vertices[verticesIndex++] = NOR.z;
-        vertices[verticesIndex++] = color.r;
-        vertices[verticesIndex++] = color.g;
-        vertices[verticesIndex++] = color.b;
-        vertices[verticesIndex++] = color.a;
+        vertices[verticesIndex++] = packedColor;
         vertices[verticesIndex++] = UV1.x;
         vertices[verticesIndex++] = UV2.y;
 
@@ -305,10 +378,7 @@ public class Tetrad implements Pool.Poolable {
         vertices[verticesIndex++] = NOR.x;
         vertices[verticesIndex++] = NOR.y;
         vertices[verticesIndex++] = NOR.z;
-        vertices[verticesIndex++] = color.r;
-        vertices[verticesIndex++] = color.g;
-        vertices[verticesIndex++] = color.b;
-        vertices[verticesIndex++] = color.a;
+        vertices[verticesIndex++] = packedColor;
         vertices[verticesIndex++] = UV1.x;
         vertices[verticesIndex++] = UV1.y;
 
@@ -318,125 +388,30 @@ public class Tetrad implements Pool.Poolable {
         vertices[verticesIndex++] = NOR.x;
         vertices[verticesIndex++] = NOR.y;
         vertices[verticesIndex++] = NOR.z;
-        vertices[verticesIndex++] = color.r;
-        vertices[verticesIndex++] = color.g;
-        vertices[verticesIndex++] = color.b;
-        vertices[verticesIndex++] = color.a;
+        vertices[verticesIndex++] = packedColor;
         vertices[verticesIndex++] = UV2.x;
         vertices[verticesIndex++] = UV2.y;
 
-        vertices[verticesIndex++] = LR.x;
-        vertices[verticesIndex++] = LR.y;
-        vertices[verticesIndex++] = LR.z;
-        vertices[verticesIndex++] = NOR.x;
-        vertices[verticesIndex++] = NOR.y;
-        vertices[verticesIndex++] = NOR.z;
-        vertices[verticesIndex++] = color.r;
-        vertices[verticesIndex++] = color.g;
-        vertices[verticesIndex++] = color.b;
-        vertices[verticesIndex++] = color.a;
-        vertices[verticesIndex++] = UV2.x;
-        vertices[verticesIndex++] = UV2.y;
-
-        vertices[verticesIndex++] = UL.x;
-        vertices[verticesIndex++] = UL.y;
-        vertices[verticesIndex++] = UL.z;
-        vertices[verticesIndex++] = NOR.x;
-        vertices[verticesIndex++] = NOR.y;
-        vertices[verticesIndex++] = NOR.z;
-        vertices[verticesIndex++] = color.r;
-        vertices[verticesIndex++] = color.g;
-        vertices[verticesIndex++] = color.b;
-        vertices[verticesIndex++] = color.a;
-        vertices[verticesIndex++] = UV1.x;
-        vertices[verticesIndex++] = UV1.y;
-
         vertices[verticesIndex++] = UR.x;
         vertices[verticesIndex++] = UR.y;
         vertices[verticesIndex++] = UR.z;
         vertices[verticesIndex++] = NOR.x;
         vertices[verticesIndex++] = NOR.y;
         vertices[verticesIndex++] = NOR.z;
-        vertices[verticesIndex++] = color.r;
-        vertices[verticesIndex++] = color.g;
-        vertices[verticesIndex++] = color.b;
-        vertices[verticesIndex++] = color.a;
+        vertices[verticesIndex++] = packedColor;
         vertices[verticesIndex++] = UV2.x;
         vertices[verticesIndex++] = UV1.y;
     }
 
     public void renderModels(ShaderProgram shader) {
-        mesh.setVertices(vertices);
-        mesh.render(shader, GL20.GL_TRIANGLES, 0, verticesIndex/ NUM_COMPONENTS_PER_VERTEX);
+        if (slice < 0) return;
+        arena.render(shader, slice, quadCount);
     }
 
 
-    public void rotate(int dir) {
-        for (TetradPiece point : points) {
-            if (dir < 0) {
-                point.set(point.y, bounds - point.x);
-                game.audio.playSound(Audio.Sounds.rotateLeft);
-            } else {
-                point.set(bounds - point.y, point.x);
-                game.audio.playSound(Audio.Sounds.rotateRight);
-            }
-        }
-    }
-
-    public boolean containsPoint(int x, int y) {
-        for (TetradPiece point : points) {
-            if (point.x + origin.x == x && point.y + origin.y == y) return true;
-        }
-        return false;
-    }
-
-    public TetradPiece getPieceAt(int x, int y) {
-        for (TetradPiece point : points) {
-            if (point.x + origin.x == x && point.y + origin.y == y) return point;
-        }
-        return null;
-    }
-
-    public boolean resolvingTetrad() {
-        for (TetradPiece piece : points) {
-            if (piece.getDestroyTimer() != null && piece.getDestroyTimer() > 0 && piece.removeReason == TetradPiece.RemoveReason.CLEARED) return true;
-        }
-        return false;
-    }
-
-    public void deleteRow(int y) {
-        if (y < origin.y) {
-            origin.y--;
-        } else {
-            for (int i = points.size - 1; i >= 0; i--) {
-                TetradPiece point = points.get(i);
-                if (y == origin.y + point.y) {
-                    points.removeIndex(i);
-                } else if (y < origin.y + point.y) {
-                    point.y -= 1;
-                }
-            }
-        }
-    }
-
-    public boolean isEmpty() {
-        return points.size == 0;
-    }
-
-    public void insertIntoBoard(GameBoard gameBoard) {
-        this.gameBoard = gameBoard;
-        int height = 0;
-        for (TetradPiece point : points) {
-            if (point.y > height) height = point.y;
-        }
-        this.origin = new Vector2(4, 19 - height);
-    }
-
-    public Vector2 removeFromBoard() {
-        Vector2 pos = origin;
-        origin = null;
-        gameBoard = null;
-        return pos;
+    @Override
+    protected TetradPiece newBlock(int x, int y) {
+        return new TetradPiece(this, x, y, color);
     }
 
     public void center(Vector2 center) {
@@ -447,81 +422,44 @@ public class Tetrad implements Pool.Poolable {
         return center;
     }
 
-    private void buildNewPiece() {
-        type = MathUtils.random(6);
+    public void buildPiece(int type) {
         switch (type) {
             case 0:
                 // I
-                points.add(new TetradPiece(this, 0, 2, color));
-                points.add(new TetradPiece(this, 1, 2, color));
-                points.add(new TetradPiece(this, 2, 2, color));
-                points.add(new TetradPiece(this, 3, 2, color));
                 center.set(2, 2.5f);
-                bounds = 3;
-                color = new Color(Color.BLUE);
+                color.set(Color.BLUE);
                 break;
             case 1:
                 // L
-                points.add(new TetradPiece(this, 0, 2, color));
-                points.add(new TetradPiece(this, 0, 1, color));
-                points.add(new TetradPiece(this, 1, 1, color));
-                points.add(new TetradPiece(this, 2, 1, color));
                 center.set(1.5f, 2f);
-                bounds = 2;
-                color = new Color(Color.GREEN);
+                color.set(Color.GREEN);
                 break;
             case 2:
                 // Other L
-                points.add(new TetradPiece(this, 0, 1, color));
-                points.add(new TetradPiece(this, 1, 1, color));
-                points.add(new TetradPiece(this, 2, 1, color));
-                points.add(new TetradPiece(this, 2, 2, color));
                 center.set(1.5f, 2f);
-                bounds = 2;
-                color = new Color(Color.ORANGE);
+                color.set(Color.ORANGE);
                 break;
             case 3:
                 // square
-                points.add(new TetradPiece(this, 0, 0, color));
-                points.add(new TetradPiece(this, 0, 1, color));
-                points.add(new TetradPiece(this, 1, 0, color));
-                points.add(new TetradPiece(this, 1, 1, color));
                 center.set(1f, 1f);
-                bounds = 1;
-                color = new Color(Color.RED);
+                color.set(Color.RED);
                 break;
             case 4:
                 // S
-                points.add(new TetradPiece(this, 0, 1, color));
-                points.add(new TetradPiece(this, 1, 1, color));
-                points.add(new TetradPiece(this, 1, 2, color));
-                points.add(new TetradPiece(this, 2, 2, color));
                 center.set(1.5f, 2f);
-                bounds = 2;
-                color = new Color(Color.RED);
+                color.set(Color.RED);
                 break;
             case 5:
                 // other S
-                points.add(new TetradPiece(this, 0, 2, color));
-                points.add(new TetradPiece(this, 1, 2, color));
-                points.add(new TetradPiece(this, 1, 1, color));
-                points.add(new TetradPiece(this, 2, 1, color));
                 center.set(1.5f, 2f);
-                bounds = 2;
-                color = new Color(Color.BLUE);
+                color.set(Color.BLUE);
                 break;
             case 6:
                 // T
-                points.add(new TetradPiece(this, 0, 1, color));
-                points.add(new TetradPiece(this, 1, 1, color));
-                points.add(new TetradPiece(this, 1, 2, color));
-                points.add(new TetradPiece(this, 2, 1, color));
                 center.set(1.5f, 2f);
-                bounds = 2;
-                color = new Color(Color.RED);
+                color.set(Color.RED);
                 break;
         }
-        // I
-
+        build(type);
     }
 }
@@ -2,63 +2,17 @@ package lando.systems.ld47.entities;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
+import lando.systems.ld47.engine.Block;
 
 
-public class TetradPiece implements IShootable {
-    public enum RemoveReason { NOT_REMOVED, CLEARED, STOLEN, SHOT};
-    public int x;
-    public int y;
+public class TetradPiece extends Block implements IShootable {
     public Color color;
-    private Float destroyTimer;
-    public float maxDestroyTimer;
-    private float destroyDelay;
-    public boolean remove;
-    public RemoveReason removeReason;
     public Tetrad owner;
 
-    public TetradPiece(TetradPiece clone) {
-        this.owner = clone.owner;
-        this.x = clone.x;
-        this.y = clone.y;
-        this.color = clone.color;
-        this.removeReason = RemoveReason.NOT_REMOVED;
-    }
-
     public TetradPiece(Tetrad owner, int x, int y, Color color) {
+        super(x, y);
         this.owner = owner;
-        this.x = x;
-        this.y = y;
         this.color = color;
-        this.removeReason = RemoveReason.NOT_REMOVED;
-    }
-
-    public void set(int x, int y) {
-        this.x = x;
-        this.y = y;
-    }
-
-    public void update(float dt) {
-        if (destroyTimer != null){
-            if (destroyDelay > 0){
-                destroyDelay -= dt;
-            } else {
-                destroyTimer -= dt;
-                if (destroyTimer <= 0) {
-                    remove = true;
-                }
-            }
-        }
-    }
-
-    public void setDestroyTimer(float delay, float ttl, RemoveReason reason) {
-        destroyDelay = delay;
-        destroyTimer = ttl;
-        maxDestroyTimer = ttl;
-        this.removeReason = reason;
-    }
-
-    public Float getDestroyTimer() {
-        return destroyTimer;
     }
 
 
@@ -73,7 +27,10 @@ public class TetradPiece implements IShootable {
 
     @Override
     public void hit() {
-        setDestroyTimer(0, .3f, TetradPiece.RemoveReason.SHOT);
+        GameBoard gameBoard = owner.gameBoard;
+        if (gameBoard != null) {
+            gameBoard.shoot(this);
+        }
     }
 
     @Override
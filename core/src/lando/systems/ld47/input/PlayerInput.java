@@ -78,12 +78,26 @@ public class PlayerInput extends ControllerAdapter {
 
     private TriggerState horizontalState = new TriggerState();
 
+    // button presses seen since the last simulation step, and the ones that step gets to act on
+    private boolean rotateRightPending, rotateLeftPending, plungePending, holdPending;
+    private boolean rotateRight, rotateLeft, plunge, hold;
+
+    // once per simulation step, hands the presses collected by poll() to this step and runs the key repeat timers
     public void update(float dt) {
         rightHold -= dt;
         leftHold -= dt;
         downHold -= dt;
         horizontalState.reset();
 
+        rotateRight = rotateRightPending;
+        rotateLeft  = rotateLeftPending;
+        plunge      = plungePending;
+        hold        = holdPending;
+        rotateRightPending = rotateLeftPending = plungePending = holdPending = false;
+    }
+
+    // once per rendered frame, just-pressed only lasts a frame so it gets held on to until the next step takes it
+    public void poll() {
         if (controllerState.controller != null) {
             // NOTE: not sure if povCode 0 is guaranteed to be what we want?
             // check dpad first so stick doesn't overwrite that state
@@ -140,6 +154,22 @@ public class PlayerInput extends ControllerAdapter {
         } else {
             controllerState.reset();
         }
+
+        rotateRightPending |= Gdx.input.isKeyJustPressed(Input.Keys.Q)
+                           || Gdx.input.isKeyJustPressed(Input.Keys.J)
+                           || controllerState.rotateRightButtonJustPressed;
+        rotateLeftPending  |= Gdx.input.isKeyJustPressed(Input.Keys.E)
+                           || Gdx.input.isKeyJustPressed(Input.Keys.L)
+                           || controllerState.rotateLeftButtonJustPressed;
+        plungePending      |= Gdx.input.isKeyJustPressed(Input.Keys.SPACE)
+                           || Gdx.input.isKeyJustPressed(Input.Keys.W)
+                           || Gdx.input.isKeyJustPressed(Input.Keys.UP)
+                           || controllerState.plungeButtonJustPressed
+                           || controllerState.moveUpJustPressed;
+        holdPending        |= Gdx.input.isKeyJustPressed(Input.Keys.K)
+                           || Gdx.input.isKeyJustPressed(Input.Keys.CONTROL_LEFT)
+                           || Gdx.input.isKeyJustPressed(Input.Keys.CONTROL_RIGHT)
+                           || controllerState.holdButtonJustPressed;
     }
 
     public TriggerState isRightPressed() {
@@ -176,30 +206,19 @@ public class PlayerInput extends ControllerAdapter {
     }
 
     public boolean isRotateRight() {
-        return Gdx.input.isKeyJustPressed(Input.Keys.Q)
-            || Gdx.input.isKeyJustPressed(Input.Keys.J)
-            || controllerState.rotateRightButtonJustPressed;
+        return rotateRight;
     }
 
     public boolean isRotateLeft() {
-        return Gdx.input.isKeyJustPressed(Input.Keys.E)
-            || Gdx.input.isKeyJustPressed(Input.Keys.L)
-            || controllerState.rotateLeftButtonJustPressed;
+        return rotateLeft;
     }
 
     public boolean isPlungedPressed() {
-        return Gdx.input.isKeyJustPressed(Input.Keys.SPACE)
-            || Gdx.input.isKeyJustPressed(Input.Keys.W)
-            || Gdx.input.isKeyJustPressed(Input.Keys.UP)
-            || controllerState.plungeButtonJustPressed
-            || controllerState.moveUpJustPressed;
+        return plunge;
     }
 
     public boolean isHoldPressed() {
-        return Gdx.input.isKeyJustPressed(Input.Keys.K)
-            || Gdx.input.isKeyJustPressed(Input.Keys.CONTROL_LEFT)
-            || Gdx.input.isKeyJustPressed(Input.Keys.CONTROL_RIGHT)
-            || controllerState.holdButtonJustPressed;
+        return hold;
     }
 
     public boolean isAnyButtonPressed() {
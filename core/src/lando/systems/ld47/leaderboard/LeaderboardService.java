@@ -7,6 +7,7 @@ import com.badlogic.gdx.net.HttpRequestBuilder;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonWriter;
+import lando.systems.ld47.Config;
 import lando.systems.ld47.screens.GameScreen;
 import lando.systems.ld47.ui.GameHud;
 
@@ -39,6 +40,7 @@ public class LeaderboardService {
     }
 
     public void postScore(String name, int score) {
+        if (!Config.leaderboard) return;
         Net.HttpRequest request = requester.newRequest()
                 .method(Net.HttpMethods.POST)
                 .url(url)
@@ -49,6 +51,7 @@ public class LeaderboardService {
     }
 
     public void getScores() {
+        if (!Config.leaderboard) return;
         Net.HttpRequest request = requester.newRequest()
                 .method(Net.HttpMethods.GET)
                 .url(url)
@@ -0,0 +1,126 @@
+package lando.systems.ld47.particles;
+
+import com.badlogic.gdx.math.MathUtils;
+import lando.systems.ld47.Config;
+
+/**
+ * Keeps the app's one shared particle system within what the machine can take.
+ * It watches how many particles and decals are alive and how long updating them takes, and turns that
+ * into a density between minDensity and the chosen quality. Spawners ask it how many of something to make
+ * and for how long, so under pressure a hard drop throws fewer, shorter lived sparks instead of stalling the frame.
+ * Density drops straight away and climbs back slowly, so it doesn't flicker between levels.
+ */
+public class ParticleBudget {
+
+    public enum Quality {
+        low(.25f), medium(.5f), high(1f);
+
+        public final float density;
+
+        Quality(float density) {
+            this.density = density;
+        }
+
+        public Quality next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    // hard limits, nothing spawns past these
+    public static final int MAX_PARTICLES = 4000;
+    public static final int MAX_DECALS = 6000;
+    // update time for particles and decals together that counts as full load
+    private static final long UPDATE_BUDGET_NANOS = 2000000;
+
+    // throttling starts at this share of any limit and bottoms out at the limit
+    private static final float PRESSURE_START = .5f;
+    private static final float MIN_DENSITY = .1f;
+    // how fast density climbs back per second once the pressure is off
+    private static final float RECOVER_RATE = .5f;
+    // weight of the latest update in the running average
+    private static final float AVERAGE_WEIGHT = .1f;
+
+    private int particles;
+    private int decals;
+    private float particleNanos;
+    private float decalNanos;
+    private float density = 1f;
+
+    public void setParticleCount(int count) {
+        particles = count;
+    }
+
+    public void setDecalCount(int count) {
+        decals = count;
+    }
+
+    public void recordParticleUpdate(long nanos) {
+        particleNanos += (nanos - particleNanos) * AVERAGE_WEIGHT;
+    }
+
+    public void recordDecalUpdate(long nanos) {
+        decalNanos += (nanos - decalNanos) * AVERAGE_WEIGHT;
+    }
+
+    // once per step, after the counts and timings are in
+    public void update(float dt) {
+        float load = Math.max((float) particles / MAX_PARTICLES, (float) decals / MAX_DECALS);
+        load = Math.max(load, (particleNanos + decalNanos) / UPDATE_BUDGET_NANOS);
+        float pressure = MathUtils.clamp((load - PRESSURE_START) / (1f - PRESSURE_START), 0f, 1f);
+        float target = Math.max(MIN_DENSITY, Config.particleQuality.density * (1f - pressure));
+        if (target < density) {
+            density = target;
+        } else {
+            density = Math.min(target, density + RECOVER_RATE * dt);
+        }
+    }
+
+    public float getDensity() {
+        return density;
+    }
+
+    // the level the particles are running at right now, at most the chosen quality
+    public Quality getQuality() {
+        if (density >= Quality.high.density * .9f) return Quality.high;
+        if (density >= Quality.medium.density * .9f) return Quality.medium;
+        return Quality.low;
+    }
+
+    public float getUpdateMillis() {
+        return (particleNanos + decalNanos) / 1000000f;
+    }
+
+    // how many of a burst of count particles to spawn, never more than are left under the limit
+    public int particles(int count) {
+        return Math.max(0, Math.min(scale(count), MAX_PARTICLES - particles));
+    }
+
+    public int decals(int count) {
+        return Math.max(0, Math.min(scale(count), MAX_DECALS - decals));
+    }
+
+    // room under the hard limit, for spawns that are all or nothing
+    public int particlesLeft() {
+        return Math.max(0, MAX_PARTICLES - particles);
+    }
+
+    // lifetimes shrink less than counts, a sparse burst still has to read as a burst
+    public float timeToLive(float ttl) {
+        return ttl * (.5f + .5f * density);
+    }
+
+    // call after spawning so the next spawner in the same step sees them
+    public void spawnedParticles(int count) {
+        particles += count;
+    }
+
+    public void spawnedDecals(int count) {
+        decals += count;
+    }
+
+    private int scale(int count) {
+        if (count <= 0) return 0;
+        return Math.max(1, MathUtils.round(count * density));
+    }
+
+}
@@ -1,26 +1,30 @@
 package lando.systems.ld47.particles;
 
-import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.g3d.decals.Decal;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Pool;
 
 public class ParticleDecal implements Pool.Poolable {
 
+    // one builder handed out again for every decal, so finish one before starting the next
+    private static final Builder builder = new Builder();
+
     public static Builder builder(ParticleDecal particle) {
-        return new Builder(particle);
+        return builder.reset(particle);
     }
 
-    public Decal decal;
-    private boolean billboard;
     private Interpolation interpolation;
 
-    private float x;
-    private float y;
-    private float z;
+    // what ParticleDecalRenderer draws, it always faces the camera
+    TextureRegion region;
+    float x;
+    float y;
+    float z;
+    float width;
+    float height;
+    float color;
 
     private float xVel;
     private float yVel;
@@ -56,11 +60,7 @@ public class ParticleDecal implements Pool.Poolable {
         reset();
     }
 
-    private void setTexture(TextureRegion texture) {
-        this.decal = Decal.newDecal(texture, true);
-    }
-
-    public void update(float dt, Camera camera) {
+    public void update(float dt) {
 
         float lifetime, progress;
         ttl -= dt;
@@ -82,21 +82,15 @@ public class ParticleDecal implements Pool.Poolable {
         y += yVel * dt;
         z += zVel * dt;
 
-        float width  = MathUtils.lerp(widthStart,  widthEnd,  progress);
-        float height = MathUtils.lerp(heightStart, heightEnd, progress);
+        width  = MathUtils.lerp(widthStart,  widthEnd,  progress);
+        height = MathUtils.lerp(heightStart, heightEnd, progress);
 
         float r = MathUtils.lerp(rStart, rEnd, progress);
         float g = MathUtils.lerp(gStart, gEnd, progress);
         float b = MathUtils.lerp(bStart, bEnd, progress);
         float a = MathUtils.lerp(aStart, aEnd, progress);
 
-        decal.setPosition(x, y, z);
-        decal.setDimensions(width, height);
-        decal.setColor(r, g, b, a);
-
-        if (billboard){
-            decal.lookAt(camera.position, camera.up);
-        }
+        color = Color.toFloatBits(r, g, b, a);
         ready = true;
     }
 
@@ -106,51 +100,77 @@ public class ParticleDecal implements Pool.Poolable {
 
     @Override
     public void reset() {
-        decal = null;
+        region = null;
         ready = false;
     }
 
     public static class Builder {
 
         private TextureRegion texture;
-        private boolean billboard = true;
-        private Interpolation interpolation = Interpolation.linear;
-        private float x = 0;
-        private float y = 0;
-        private float z = 0;
-
-        private float xVel = 0;
-        private float yVel = 0;
-        private float zVel = 0;
-
-        private float xAccel = 0;
-        private float yAccel = 0;
-        private float zAccel = 0;
-
-        private float accDamp = 0;
-
-        private float rStart = 0;
-        private float gStart = 0;
-        private float bStart = 0;
-        private float aStart = 0;
-
-        private float rEnd = 0;
-        private float gEnd = 0;
-        private float bEnd = 0;
-        private float aEnd = 0;
-
-        private float widthStart = 1;
-        private float widthEnd = 1;
-        private float heightStart = 1;
-        private float heightEnd = 1;
-
-        private float ttl = 0;
-        private float maxTTL = 0;
+        private Interpolation interpolation;
+        private float x;
+        private float y;
+        private float z;
+
+        private float xVel;
+        private float yVel;
+        private float zVel;
+
+        private float xAccel;
+        private float yAccel;
+        private float zAccel;
+
+        private float accDamp;
+
+        private float rStart;
+        private float gStart;
+        private float bStart;
+        private float aStart;
+
+        private float rEnd;
+        private float gEnd;
+        private float bEnd;
+        private float aEnd;
+
+        private float widthStart;
+        private float widthEnd;
+        private float heightStart;
+        private float heightEnd;
+
+        private float ttl;
+        private float maxTTL;
         private ParticleDecal particle;
 
-        public Builder(ParticleDecal particle) {
+        Builder reset(ParticleDecal particle) {
             this.particle = particle;
             this.particle.reset();
+            texture = null;
+            interpolation = Interpolation.linear;
+            x = 0;
+            y = 0;
+            z = 0;
+            xVel = 0;
+            yVel = 0;
+            zVel = 0;
+            xAccel = 0;
+            yAccel = 0;
+            zAccel = 0;
+            accDamp = 0;
+            rStart = 0;
+            gStart = 0;
+            bStart = 0;
+            aStart = 0;
+            rEnd = 0;
+            gEnd = 0;
+            bEnd = 0;
+            aEnd = 0;
+            widthStart = 1;
+            widthEnd = 1;
+            heightStart = 1;
+            heightEnd = 1;
+            ttl = 0;
+            maxTTL = 0;
+            return this;
         }
 
         public Builder texture(TextureRegion texture){
@@ -232,7 +252,7 @@ public class ParticleDecal implements Pool.Poolable {
         }
 
         public ParticleDecal build() {
-            particle.setTexture(texture);
+            particle.region = texture;
             particle.interpolation = this.interpolation;
             particle.x = this.x;
             particle.y = this.y;
@@ -258,7 +278,6 @@ public class ParticleDecal implements Pool.Poolable {
             particle.heightEnd = this.heightEnd;
             particle.ttl = this.ttl;
             particle.maxTTL = this.maxTTL;
-            particle.billboard = this.billboard;
 
             return particle;
         }
@@ -0,0 +1,128 @@
+package lando.systems.ld47.particles;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import lando.systems.ld47.utils.VertexArena;
+
+/**
+ * Draws every live ParticleDecal as a camera facing quad out of one streamed vertex buffer.
+ * Blending is additive, so the order doesn't matter and nothing gets sorted, the cost is one pass over the
+ * particles to write them and one draw for each run of particles sharing a texture, which in practice is one.
+ * The buffer starts small and doubles when a burst needs more, up to the budget's decal limit.
+ */
+public class ParticleDecalRenderer implements Disposable {
+
+    // position, packed color, texture coords
+    private static final int FLOATS_PER_VERTEX = 3 + 1 + 2;
+    private static final int FLOATS_PER_QUAD = 4 * FLOATS_PER_VERTEX;
+
+    private final ShaderProgram shader;
+    private Mesh mesh;
+    private float[] vertices;
+    private int maxQuads;
+
+    private final Vector3 right = new Vector3();
+    private final Vector3 up = new Vector3();
+
+    // where each run of quads with the same texture starts
+    private final IntArray runStarts = new IntArray();
+    private final Array<Texture> runTextures = new Array<>();
+
+    public ParticleDecalRenderer(ShaderProgram shader) {
+        this.shader = shader;
+        allocate(512);
+    }
+
+    private void allocate(int quads) {
+        if (mesh != null) {
+            mesh.dispose();
+        }
+        mesh = new Mesh(false, quads * 4, quads * 6,
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"));
+        mesh.setIndices(VertexArena.quadIndices(quads));
+        vertices = new float[quads * FLOATS_PER_QUAD];
+        maxQuads = quads;
+    }
+
+    public void render(Camera camera, Array<ParticleDecal> decals) {
+        int needed = Math.min(decals.size, ParticleBudget.MAX_DECALS);
+        if (needed > maxQuads) {
+            int quads = maxQuads;
+            while (quads < needed) quads *= 2;
+            allocate(Math.min(quads, ParticleBudget.MAX_DECALS));
+        }
+
+        // the same two axes for every particle, they all face the way the camera looks
+        right.set(camera.direction).crs(camera.up).nor();
+        up.set(right).crs(camera.direction).nor();
+
+        runStarts.clear();
+        runTextures.clear();
+        float[] v = vertices;
+        int quads = 0;
+        int i = 0;
+        for (int d = 0; d < decals.size && quads < maxQuads; d++) {
+            ParticleDecal decal = decals.get(d);
+            if (!decal.ready || decal.region == null) continue;
+
+            TextureRegion region = decal.region;
+            Texture texture = region.getTexture();
+            if (runTextures.size == 0 || runTextures.peek() != texture) {
+                runStarts.add(quads);
+                runTextures.add(texture);
+            }
+
+            float hw = decal.width / 2f;
+            float hh = decal.height / 2f;
+            float rx = right.x * hw, ry = right.y * hw, rz = right.z * hw;
+            float ux = up.x * hh,    uy = up.y * hh,    uz = up.z * hh;
+            float x = decal.x, y = decal.y, z = decal.z;
+            float color = decal.color;
+
+            // LL, UL, LR, UR
+            v[i++] = x - rx - ux; v[i++] = y - ry - uy; v[i++] = z - rz - uz; v[i++] = color; v[i++] = region.getU();  v[i++] = region.getV2();
+            v[i++] = x - rx + ux; v[i++] = y - ry + uy; v[i++] = z - rz + uz; v[i++] = color; v[i++] = region.getU();  v[i++] = region.getV();
+            v[i++] = x + rx - ux; v[i++] = y + ry - uy; v[i++] = z + rz - uz; v[i++] = color; v[i++] = region.getU2(); v[i++] = region.getV2();
+            v[i++] = x + rx + ux; v[i++] = y + ry + uy; v[i++] = z + rz + uz; v[i++] = color; v[i++] = region.getU2(); v[i++] = region.getV();
+            quads++;
+        }
+        if (quads == 0) return;
+
+        mesh.setVertices(v, 0, i);
+
+        // depth tested against the blocks but not written, glow just adds up
+        Gdx.gl.glDepthMask(false);
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", camera.combined);
+        shader.setUniformi("u_texture", 0);
+        for (int run = 0; run < runStarts.size; run++) {
+            int start = runStarts.get(run);
+            int end = (run + 1 < runStarts.size) ? runStarts.get(run + 1) : quads;
+            runTextures.get(run).bind(0);
+            mesh.render(shader, GL20.GL_TRIANGLES, start * 6, (end - start) * 6);
+        }
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        Gdx.gl.glDepthMask(true);
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+    }
+
+}
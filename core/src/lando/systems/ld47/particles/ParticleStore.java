@@ -0,0 +1,356 @@
+package lando.systems.ld47.particles;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import lando.systems.ld47.utils.SimplePath;
+
+/**
+ * Every live particle of one layer, kept as parallel arrays with one entry per particle instead of an object each.
+ * Live particles are always packed into [0, size), a dead one is replaced by the last so nothing ever shifts.
+ * The update walks each attribute in its own straight loop, so most of it streams through memory
+ * and the simple lerps can be vectorized. Particles are added through Particle.Initializer.
+ */
+public class ParticleStore {
+
+    static final int MOTION_FREE = 0;
+    static final int MOTION_TARGETED = 1;
+    static final int MOTION_PATH = 2;
+
+    int size;
+    private int capacity;
+
+    // how many live particles have an animation or a path, so their loops can be skipped when there are none
+    private int animated;
+    private int pathed;
+
+    TextureRegion[] keyframe;
+    Animation<TextureRegion>[] animation;
+    SimplePath[] path;
+    Interpolation[] interpolation;
+
+    int[] motion;
+    boolean[] timed;
+    boolean[] persistent;
+
+    float[] animTime;
+    float[] progress;
+
+    float[] xStart, yStart;
+    float[] x, y;
+    // where the particle was before the latest update, drawing blends from here
+    float[] xPrevious, yPrevious;
+    float[] xTarget, yTarget;
+    // how far a particle strays from a shared path, full strength halfway along and none at either end
+    float[] xPathOffset, yPathOffset;
+    float[] xVel, yVel;
+    float[] xAcc, yAcc;
+    float[] accDamp;
+
+    float[] widthStart, widthEnd, width;
+    float[] heightStart, heightEnd, height;
+    float[] rotationStart, rotationEnd, rotation;
+
+    float[] rStart, gStart, bStart, aStart;
+    float[] rEnd, gEnd, bEnd, aEnd;
+    float[] r, g, b, a;
+
+    float[] ttlMax;
+    float[] ttl;
+
+    private final Particle.Initializer initializer = new Particle.Initializer(this);
+    private final Vector2 pathPos = new Vector2();
+
+    public ParticleStore(int capacity) {
+        resize(Math.max(capacity, 16));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > this.capacity) {
+            resize(capacity);
+        }
+    }
+
+    // the store's one initializer, cleared for the next particle
+    Particle.Initializer initializer() {
+        return initializer.reset();
+    }
+
+    // hands out the next slot, growing when full, the initializer fills every field of it
+    int obtain() {
+        if (size == capacity) {
+            resize(capacity * 2);
+        }
+        return size++;
+    }
+
+    // called by the initializer once a slot is filled in
+    void added(int i) {
+        if (animation[i] != null) animated++;
+        if (motion[i] == MOTION_PATH) pathed++;
+    }
+
+    public void update(float dt) {
+        int n = size;
+        if (n == 0) return;
+
+        System.arraycopy(x, 0, xPrevious, 0, n);
+        System.arraycopy(y, 0, yPrevious, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            float lifetime;
+            if (timed[i]) {
+                ttl[i] -= dt;
+                lifetime = MathUtils.clamp(ttl[i] / ttlMax[i], 0f, 1f);
+            } else {
+                ttl[i] += dt;
+                lifetime = MathUtils.clamp(ttl[i], 0f, 1f);
+            }
+            progress[i] = interpolation[i].apply(0f, 1f, MathUtils.clamp(1f - lifetime, 0f, 1f));
+        }
+
+        if (animated > 0) {
+            for (int i = 0; i < n; i++) {
+                Animation<TextureRegion> anim = animation[i];
+                if (anim == null) continue;
+                if (!persistent[i] && timed[i]) animTime[i] = progress[i] * anim.getAnimationDuration();
+                else                            animTime[i] += dt;
+                keyframe[i] = anim.getKeyFrame(animTime[i]);
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            switch (motion[i]) {
+                case MOTION_FREE: {
+                    float ax = xAcc[i] * accDamp[i];
+                    float ay = yAcc[i] * accDamp[i];
+                    if (MathUtils.isEqual(ax, 0f, 0.01f)) ax = 0f;
+                    if (MathUtils.isEqual(ay, 0f, 0.01f)) ay = 0f;
+                    xAcc[i] = ax;
+                    yAcc[i] = ay;
+                    xVel[i] += ax * dt;
+                    yVel[i] += ay * dt;
+                    x[i] += xVel[i] * dt;
+                    y[i] += yVel[i] * dt;
+                    break;
+                }
+                case MOTION_TARGETED:
+                    x[i] = xStart[i] + (xTarget[i] - xStart[i]) * progress[i];
+                    y[i] = yStart[i] + (yTarget[i] - yStart[i]) * progress[i];
+                    break;
+            }
+        }
+
+        if (pathed > 0) {
+            for (int i = 0; i < n; i++) {
+                if (motion[i] != MOTION_PATH) continue;
+                // progress is a share of the path's length, so speed is steady without evaluating the spline
+                path[i].valueAtArcLength(pathPos, progress[i]);
+                float spread = MathUtils.sin(progress[i] * MathUtils.PI);
+                x[i] = pathPos.x + xPathOffset[i] * spread;
+                y[i] = pathPos.y + yPathOffset[i] * spread;
+            }
+        }
+
+        lerp(widthStart, widthEnd, width, n);
+        lerp(heightStart, heightEnd, height, n);
+        lerp(rotationStart, rotationEnd, rotation, n);
+        lerp(rStart, rEnd, r, n);
+        lerp(gStart, gEnd, g, n);
+        lerp(bStart, bEnd, b, n);
+        lerp(aStart, aEnd, a, n);
+
+        // back to front so the particle swapped in has already been checked
+        for (int i = n - 1; i >= 0; i--) {
+            if (timed[i] && !persistent[i] && ttl[i] <= 0f) {
+                remove(i);
+            }
+        }
+    }
+
+    private void lerp(float[] start, float[] end, float[] out, int n) {
+        float[] progress = this.progress;
+        for (int i = 0; i < n; i++) {
+            out[i] = start[i] + (end[i] - start[i]) * progress[i];
+        }
+    }
+
+    public void draw(SpriteBatch batch, float alpha) {
+        for (int i = 0; i < size; i++) {
+            TextureRegion region = keyframe[i];
+            if (region == null) continue;
+            float w = width[i];
+            float h = height[i];
+            float drawX = MathUtils.lerp(xPrevious[i], x[i], alpha);
+            float drawY = MathUtils.lerp(yPrevious[i], y[i], alpha);
+            batch.setColor(r[i], g[i], b[i], a[i]);
+            batch.draw(region,
+                    drawX - w / 2f, drawY - h / 2f,
+                    w / 2f, h / 2f,
+                    w, h, 1f, 1f,
+                    rotation[i]);
+        }
+        batch.setColor(1f, 1f, 1f, 1f);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            keyframe[i] = null;
+            animation[i] = null;
+            path[i] = null;
+            interpolation[i] = null;
+        }
+        size = 0;
+        animated = 0;
+        pathed = 0;
+    }
+
+    // moves the last particle into slot i
+    private void remove(int i) {
+        if (animation[i] != null) animated--;
+        if (motion[i] == MOTION_PATH) pathed--;
+
+        int last = --size;
+        if (i != last) {
+            keyframe[i] = keyframe[last];
+            animation[i] = animation[last];
+            path[i] = path[last];
+            interpolation[i] = interpolation[last];
+            motion[i] = motion[last];
+            timed[i] = timed[last];
+            persistent[i] = persistent[last];
+            animTime[i] = animTime[last];
+            progress[i] = progress[last];
+            xStart[i] = xStart[last];
+            yStart[i] = yStart[last];
+            x[i] = x[last];
+            y[i] = y[last];
+            xPrevious[i] = xPrevious[last];
+            yPrevious[i] = yPrevious[last];
+            xTarget[i] = xTarget[last];
+            yTarget[i] = yTarget[last];
+            xPathOffset[i] = xPathOffset[last];
+            yPathOffset[i] = yPathOffset[last];
+            xVel[i] = xVel[last];
+            yVel[i] = yVel[last];
+            xAcc[i] = xAcc[last];
+            yAcc[i] = yAcc[last];
+            accDamp[i] = accDamp[last];
+            widthStart[i] = widthStart[last];
+            widthEnd[i] = widthEnd[last];
+            width[i] = width[last];
+            heightStart[i] = heightStart[last];
+            heightEnd[i] = heightEnd[last];
+            height[i] = height[last];
+            rotationStart[i] = rotationStart[last];
+            rotationEnd[i] = rotationEnd[last];
+            rotation[i] = rotation[last];
+            rStart[i] = rStart[last];
+            gStart[i] = gStart[last];
+            bStart[i] = bStart[last];
+            aStart[i] = aStart[last];
+            rEnd[i] = rEnd[last];
+            gEnd[i] = gEnd[last];
+            bEnd[i] = bEnd[last];
+            aEnd[i] = aEnd[last];
+            r[i] = r[last];
+            g[i] = g[last];
+            b[i] = b[last];
+            a[i] = a[last];
+            ttlMax[i] = ttlMax[last];
+            ttl[i] = ttl[last];
+        }
+        // don't hold on to textures and paths of dead particles
+        keyframe[last] = null;
+        animation[last] = null;
+        path[last] = null;
+        interpolation[last] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        this.capacity = capacity;
+        keyframe = copy(keyframe, new TextureRegion[capacity]);
+        animation = copy(animation, new Animation[capacity]);
+        path = copy(path, new SimplePath[capacity]);
+        interpolation = copy(interpolation, new Interpolation[capacity]);
+        motion = copy(motion, capacity);
+        timed = copy(timed, capacity);
+        persistent = copy(persistent, capacity);
+        animTime = copy(animTime, capacity);
+        progress = copy(progress, capacity);
+        xStart = copy(xStart, capacity);
+        yStart = copy(yStart, capacity);
+        x = copy(x, capacity);
+        y = copy(y, capacity);
+        xPrevious = copy(xPrevious, capacity);
+        yPrevious = copy(yPrevious, capacity);
+        xTarget = copy(xTarget, capacity);
+        yTarget = copy(yTarget, capacity);
+        xPathOffset = copy(xPathOffset, capacity);
+        yPathOffset = copy(yPathOffset, capacity);
+        xVel = copy(xVel, capacity);
+        yVel = copy(yVel, capacity);
+        xAcc = copy(xAcc, capacity);
+        yAcc = copy(yAcc, capacity);
+        accDamp = copy(accDamp, capacity);
+        widthStart = copy(widthStart, capacity);
+        widthEnd = copy(widthEnd, capacity);
+        width = copy(width, capacity);
+        heightStart = copy(heightStart, capacity);
+        heightEnd = copy(heightEnd, capacity);
+        height = copy(height, capacity);
+        rotationStart = copy(rotationStart, capacity);
+        rotationEnd = copy(rotationEnd, capacity);
+        rotation = copy(rotation, capacity);
+        rStart = copy(rStart, capacity);
+        gStart = copy(gStart, capacity);
+        bStart = copy(bStart, capacity);
+        aStart = copy(aStart, capacity);
+        rEnd = copy(rEnd, capacity);
+        gEnd = copy(gEnd, capacity);
+        bEnd = copy(bEnd, capacity);
+        aEnd = copy(aEnd, capacity);
+        r = copy(r, capacity);
+        g = copy(g, capacity);
+        b = copy(b, capacity);
+        a = copy(a, capacity);
+        ttlMax = copy(ttlMax, capacity);
+        ttl = copy(ttl, capacity);
+    }
+
+    private <T> T[] copy(T[] from, T[] to) {
+        if (from != null) System.arraycopy(from, 0, to, 0, size);
+        return to;
+    }
+
+    private float[] copy(float[] from, int capacity) {
+        float[] to = new float[capacity];
+        if (from != null) System.arraycopy(from, 0, to, 0, size);
+        return to;
+    }
+
+    private int[] copy(int[] from, int capacity) {
+        int[] to = new int[capacity];
+        if (from != null) System.arraycopy(from, 0, to, 0, size);
+        return to;
+    }
+
+    private boolean[] copy(boolean[] from, int capacity) {
+        boolean[] to = new boolean[capacity];
+        if (from != null) System.arraycopy(from, 0, to, 0, size);
+        return to;
+    }
+
+}
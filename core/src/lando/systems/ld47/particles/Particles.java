@@ -7,88 +7,188 @@ import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.*;
+import com.badlogic.gdx.utils.StringBuilder;
 import lando.systems.ld47.Assets;
 import lando.systems.ld47.entities.Tetrad;
 import lando.systems.ld47.entities.TetradPiece;
 import lando.systems.ld47.utils.SimplePath;
 
+/**
+ * The one particle system of the app, screens share it through game.particles.
+ * Nothing is made up front, stores and the decal pool grow when something needs them, and
+ * warmUp() lets a menu screen grow them a little each frame before the first hard drop does it all at once.
+ */
 public class Particles implements Disposable {
 
     public enum Layer { back, front, overlay }
 
     private final Assets assets;
 
-    private final ObjectMap<Layer, Array<Particle>> activeParticles;
-
-    private final Pool<Particle> particlePool = Pools.get(Particle.class, 3000);
+    // one store per layer, indexed by the layer's ordinal
+    private final ParticleStore[] layers;
 
     public final Array<ParticleDecal> activeDecals;
-    private final Pool<ParticleDecal> decalPool = Pools.get(ParticleDecal.class, 6000);
+    private final Pool<ParticleDecal> decalPool;
+
+    public final ParticleBudget budget = new ParticleBudget();
+
+    // made on first use, it needs a gl context
+    private ParticleDecalRenderer decalRenderer;
+
+    // what warmUp() grows to, about what a big combo with a hard drop needs
+    private static final int WARM_PARTICLES_PER_LAYER = 1000;
+    private static final int WARM_DECALS = 2000;
+
+    // the most that were ever alive at once and how many decals had to be made
+    private int particlesHighWater;
+    private int decalsHighWater;
+    private int decalsCreated;
+
+    // teleport bursts take turns on these, one is long gone by the time its turn comes round again
+    private final SimplePath[] teleportPaths = new SimplePath[8];
+    private int nextTeleportPath;
 
     public Particles(Assets assets) {
         this.assets = assets;
-        this.activeParticles = new ObjectMap<>();
-        this.activeParticles.put(Layer.back,  new Array<>(false, 1000));
-        this.activeParticles.put(Layer.front, new Array<>(false, 1000));
-        this.activeParticles.put(Layer.overlay,   new Array<>(false, 1000));
+        this.layers = new ParticleStore[Layer.values().length];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new ParticleStore(64);
+        }
+
+        for (int i = 0; i < teleportPaths.length; i++) {
+            // the ends are moved for every burst, the middle stays put
+            // building the table once here makes its arrays, later builds only refill them
+            teleportPaths[i] = new SimplePath(false, 0, 0, 0, 0, 1025f, 325f, 0, 0, 0, 0).buildArcLengthTable();
+        }
 
-        this.activeDecals = new Array<>();
+        this.activeDecals = new Array<>(false, 256);
+        this.decalPool = new Pool<ParticleDecal>(256, ParticleBudget.MAX_DECALS) {
+            @Override
+            protected ParticleDecal newObject() {
+                decalsCreated++;
+                return new ParticleDecal();
+            }
+        };
+    }
 
-        for (int i = 0; i < 6000; i ++) {
-            ParticleDecal d = new ParticleDecal();
-            decalPool.free(d);
+    // grows the stores and the decal pool towards their warm sizes for at most the given time, true once they're there
+    public boolean warmUp(long nanos) {
+        return warmUp(nanos, WARM_PARTICLES_PER_LAYER, WARM_DECALS);
+    }
+
+    public boolean warmUp(long nanos, int particlesPerLayer, int decals) {
+        long end = TimeUtils.nanoTime() + nanos;
+        for (int i = 0; i < layers.length; i++) {
+            layers[i].ensureCapacity(particlesPerLayer);
+        }
+        // the pool won't hold more than that
+        decals = Math.min(decals, ParticleBudget.MAX_DECALS);
+        activeDecals.ensureCapacity(decals - activeDecals.size);
+        while (decalsCreated < decals) {
+            decalPool.fill(Math.min(64, decals - decalsCreated));
+            if (TimeUtils.nanoTime() > end) break;
         }
+        return decalsCreated >= decals;
     }
 
     public void update(float dt) {
-        for (Layer layer : Layer.values()) {
-            for (int i = activeParticles.get(layer).size - 1; i >= 0; --i) {
-                Particle particle = activeParticles.get(layer).get(i);
-                particle.update(dt);
-                if (particle.isDead()) {
-                    activeParticles.get(layer).removeIndex(i);
-                    particlePool.free(particle);
-                }
-            }
+        long start = TimeUtils.nanoTime();
+        int count = 0;
+        for (int i = 0; i < layers.length; i++) {
+            layers[i].update(dt);
+            count += layers[i].size();
         }
+        budget.recordParticleUpdate(TimeUtils.nanoTime() - start);
+        budget.setParticleCount(count);
+        budget.setDecalCount(activeDecals.size);
+        budget.update(dt);
+        particlesHighWater = Math.max(particlesHighWater, count);
+        decalsHighWater = Math.max(decalsHighWater, activeDecals.size);
     }
 
-    public void updateDecals(float dt, Camera camera) {
+    public void updateDecals(float dt) {
+        long start = TimeUtils.nanoTime();
         for (int i = activeDecals.size -1; i >= 0; i--) {
             ParticleDecal decal = activeDecals.get(i);
-            decal.update(dt, camera);
+            decal.update(dt);
             if (!decal.isAlive()){
                 activeDecals.removeIndex(i);
                 decalPool.free(decal);
             }
         }
+        budget.recordDecalUpdate(TimeUtils.nanoTime() - start);
+        budget.setDecalCount(activeDecals.size);
+    }
+
+    public void renderDecals(Camera camera) {
+        if (decalRenderer == null) {
+            decalRenderer = new ParticleDecalRenderer(assets.decalParticleShader);
+        }
+        decalRenderer.render(camera, activeDecals);
     }
 
-    public void draw(SpriteBatch batch, Layer layer) {
-        activeParticles.get(layer).forEach(particle -> particle.draw(batch));
+    public void draw(SpriteBatch batch, Layer layer, float alpha) {
+        layers[layer.ordinal()].draw(batch, alpha);
     }
 
     public void clear() {
-        for (Layer layer : Layer.values()) {
-            particlePool.freeAll(activeParticles.get(layer));
-            activeParticles.get(layer).clear();
+        for (int i = 0; i < layers.length; i++) {
+            layers[i].clear();
+        }
+        decalPool.freeAll(activeDecals);
+        activeDecals.clear();
+    }
+
+    public int getCount(Layer layer) {
+        return layers[layer.ordinal()].size();
+    }
+
+    private Particle.Initializer spawn(Layer layer) {
+        return Particle.initializer(layers[layer.ordinal()]);
+    }
+
+    public int getParticlesHighWater() {
+        return particlesHighWater;
+    }
+
+    public int getDecalsHighWater() {
+        return decalsHighWater;
+    }
+
+    public int getDecalsCreated() {
+        return decalsCreated;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("particles high water ").append(particlesHighWater).append(" (capacity");
+        for (int i = 0; i < layers.length; i++) {
+            sb.append(' ').append(layers[i].capacity());
         }
+        sb.append("), decals high water ").append(decalsHighWater)
+          .append(", decals created ").append(decalsCreated)
+          .append(", pooled ").append(decalPool.getFree());
+        return sb.toString();
     }
 
     @Override
     public void dispose() {
         clear();
+        if (decalRenderer != null) {
+            decalRenderer.dispose();
+        }
     }
 
     // ------------------------------------------------------------------------
 
     // add spawner methods here, or be smart and extract spawners out to their own classes
     public void addPieceDeleteParticles(float x, float y, Color c) {
-        int sparks = 100;
+        int sparks = budget.particles(100);
+        float ttl = budget.timeToLive(.5f);
         for (int i = 0; i < sparks; i++) {
             float speed = MathUtils.random(10, 80);
             float dir = MathUtils.random(360);
-            activeParticles.get(Layer.front).add(Particle.initializer(particlePool.obtain())
+            spawn(Layer.front)
                 .keyframe(assets.whitePixel)
                     .startPos(x, y)
                     .velocity(MathUtils.cosDeg(dir) *speed, MathUtils.sinDeg(dir) * speed)
@@ -96,17 +196,19 @@ public class Particles implements Disposable {
                     .endSize(1,1)
                     .startColor(c)
                     .endAlpha(0)
-                    .timeToLive(.5f)
-                .init());
+                    .timeToLive(ttl)
+                .init();
         }
+        budget.spawnedParticles(sparks);
     }
 
     public void addPiecePunchedParticles(float x, float y, Color c) {
-        int sparks = 100;
+        int sparks = budget.particles(100);
+        float ttl = budget.timeToLive(.5f);
         for (int i = 0; i < sparks; i++) {
             float speed = MathUtils.random(10, 200);
             float dir = MathUtils.random(360);
-            activeParticles.get(Layer.front).add(Particle.initializer(particlePool.obtain())
+            spawn(Layer.front)
                     .keyframe(assets.whitePixel)
                     .startPos(x, y)
                     .velocity(MathUtils.cosDeg(dir) * speed, MathUtils.sinDeg(dir) * speed)
@@ -114,45 +216,50 @@ public class Particles implements Disposable {
                     .endSize(1, 1)
                     .startColor(c)
                     .endAlpha(0)
-                    .timeToLive(.5f)
-                    .init());
+                    .timeToLive(ttl)
+                    .init();
         }
+        budget.spawnedParticles(sparks);
     }
 
     public void addTeleportParticles(Vector2 startPos, Vector2 endPoint) {
-        int sparks = 100;
+        int sparks = budget.particles(100);
         tempColor.fromHsv(MathUtils.random(180f, 330f), 1f, 1f);
+        // one path for the whole burst, each spark strays from it by as much as the old per spark control points did
+        SimplePath path = teleportPaths[nextTeleportPath];
+        nextTeleportPath = (nextTeleportPath + 1) % teleportPaths.length;
+        path.setControlPoint(0, startPos.x, startPos.y)
+            .setControlPoint(1, startPos.x, startPos.y)
+            .setControlPoint(3, endPoint.x, endPoint.y)
+            .setControlPoint(4, endPoint.x, endPoint.y)
+            .buildArcLengthTable();
         for (int i = 0; i < sparks; i++) {
-            float sX = startPos.x + MathUtils.random(-3, 3);
-            float sY = startPos.y + MathUtils.random(-3, 3);
-            SimplePath path = new SimplePath(false,
-                    sX, sY,
-                    sX, sY,
-                    MathUtils.random(1000f, 1050f), MathUtils.random(300f, 350f),
-                    endPoint.x, endPoint.y,
-                    endPoint.x, endPoint.y);
-            activeParticles.get(Layer.front).add(Particle.initializer(particlePool.obtain())
+            spawn(Layer.front)
                     .keyframe(assets.whiteCircle)
                     .path(path)
+                    .pathOffset(MathUtils.random(-25f, 25f), MathUtils.random(-25f, 25f))
                     .startColor(tempColor)
                     .startSize(MathUtils.random(1f, 4f), MathUtils.random(1f, 4f))
                     .endSize(1f, 1f)
-                    .timeToLive(MathUtils.random(.2f, .7f))
-                    .init());
+                    .timeToLive(budget.timeToLive(MathUtils.random(.2f, .7f)))
+                    .init();
         }
+        budget.spawnedParticles(sparks);
     }
 
     Color tempColor = new Color(Color.WHITE);
     public void addPlummetParticles(Tetrad tetrad, float startOriginY){
         tempColor.fromHsv(MathUtils.random(180f, 330f), 1f, 1f);
-        for (TetradPiece point : tetrad.points){
-            float x = point.x + tetrad.origin.x;
-            float endY = point.y + tetrad.origin.y;
+        for (int p = 0; p < tetrad.points.size(); p++) {
+            TetradPiece point = tetrad.points.get(p);
+            float x = point.x + tetrad.originX;
+            float endY = point.y + tetrad.originY;
             float startY = point.y + startOriginY;
             float delay = .01f;
             for (float i = startY; i >= endY + 1; i -= .1f) {
                 delay += .01f;
-                for (int j = 0; j < 10; j++) {
+                int sparks = budget.decals(10);
+                for (int j = 0; j < sparks; j++) {
                     activeDecals.add(ParticleDecal.builder(decalPool.obtain())
                             .texture(assets.whiteCircle)
                             .pos(x + MathUtils.random( 1f), i + MathUtils.random(-.05f, .05f), .99f)
@@ -165,18 +272,27 @@ public class Particles implements Disposable {
                             .time( delay)
                             .build());
                 }
+                budget.spawnedDecals(sparks);
             }
         }
     }
 
     public void pointIncreaseIndicator(float x, float y, float size, int point) {
-        String pointsStr = Integer.toString(point);
+        // digits worked out by hand, Integer.toString makes a new string for every line cleared
+        int digits = 1;
+        int place = 1;
+        while (point / place >= 10) {
+            digits++;
+            place *= 10;
+        }
+        // the score isn't thinned out, half a number would be wrong, but it still counts and stops at the limit
+        if (budget.particlesLeft() < digits) return;
         float velocityY = 30f;
         float startSize = size;
         float ttl = 2f;
-        for (int i = 0; i < pointsStr.length(); ++i) {
-            activeParticles.get(Layer.overlay).add(Particle.initializer(particlePool.obtain())
-                    .keyframe(assets.fontPoints.get(Character.digit(pointsStr.charAt(i), 10)).getKeyFrames()[0])
+        for (int i = 0; i < digits; ++i, place /= 10) {
+            spawn(Layer.overlay)
+                    .keyframe(assets.fontPoints.get(point / place % 10).getKeyFrames()[0])
                     .timeToLive(ttl)
                     .startPos(x + i * (startSize - 3f), y)
                     .velocity(0f, velocityY)
@@ -188,7 +304,8 @@ public class Particles implements Disposable {
                     .endColor(Color.TEAL)
                     .startAlpha(1f)
                     .endAlpha(0.1f)
-                    .init());
+                    .init();
         }
+        budget.spawnedParticles(digits);
     }
 }
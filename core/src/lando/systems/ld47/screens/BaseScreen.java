@@ -34,7 +34,7 @@ public abstract class BaseScreen extends InputAdapter {
         this.assets = game.assets;
         this.tween = game.tween;
         this.batch = assets.batch;
-        this.particles = new Particles(assets);
+        this.particles = game.particles;
 
         this.worldCamera = new OrthographicCamera();
         this.worldCamera.setToOrtho(false, Config.windowWidth, Config.windowHeight);
@@ -54,11 +54,16 @@ public abstract class BaseScreen extends InputAdapter {
         Controllers.addListener(playerInput);
     }
 
+    // once per rendered frame
     public void update(float dt) {
+        playerInput.poll();
+        leaderboardService.update(dt);
+    }
+
+    // at the fixed step rate, zero or more times a frame
+    public void step(float dt) {
         shaker.update(dt);
-        particles.update(dt);
         playerInput.update(dt);
-        leaderboardService.update(dt);
     }
 
 
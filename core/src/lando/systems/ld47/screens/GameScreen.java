@@ -7,10 +7,13 @@ import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import lando.systems.ld47.Audio;
 import lando.systems.ld47.Game;
 import lando.systems.ld47.GameState;
+import lando.systems.ld47.engine.InputLog;
 import lando.systems.ld47.entities.GameBoard;
 import lando.systems.ld47.entities.Opponent;
 import lando.systems.ld47.particles.Particles;
 import lando.systems.ld47.ui.GameHud;
+import lando.systems.ld47.utils.Profiler;
+import lando.systems.ld47.utils.RenderStats;
 
 public class GameScreen extends BaseScreen{
 
@@ -23,10 +26,19 @@ public class GameScreen extends BaseScreen{
     ShaderProgram shader;
 
     public GameScreen(Game game) {
+        this(game, null);
+    }
+
+    // plays back a recorded game when replay is set
+    public GameScreen(Game game, InputLog replay) {
         super(game);
 
-        gameState = new GameState(this);
-        gameBoard = new GameBoard(gameState);
+        if (replay != null) {
+            gameState = new GameState(this, replay.getSeed(), replay.getPolicy());
+        } else {
+            gameState = new GameState(this);
+        }
+        gameBoard = new GameBoard(gameState, replay);
         gameHud = new GameHud(gameState);
 
         shader = game.idkfa ? game.assets.cityShader2 : game.assets.cityShader;
@@ -70,15 +82,28 @@ public class GameScreen extends BaseScreen{
         shader = game.idkfa ? game.assets.cityShader2 : game.assets.cityShader;
         accum += dt;
 
+        Profiler.begin(Profiler.Section.hud);
+        gameHud.update(dt);
+        Profiler.end(Profiler.Section.hud);
+    }
+
+    @Override
+    public void step(float dt) {
+        super.step(dt);
+        Profiler.begin(Profiler.Section.board);
         gameBoard.update(dt);
+        Profiler.end(Profiler.Section.board);
         if (opponent != null) {
+            Profiler.begin(Profiler.Section.opponent);
             opponent.update(dt);
+            Profiler.end(Profiler.Section.opponent);
         }
-        gameHud.update(dt);
     }
 
     @Override
     public void render(SpriteBatch batch) {
+        Profiler.begin(Profiler.Section.renderCity);
+        RenderStats.pass(RenderStats.Pass.city);
         batch.setProjectionMatrix(shaker.getCombinedMatrix());
         batch.setShader(shader);
         batch.begin();
@@ -89,14 +114,23 @@ public class GameScreen extends BaseScreen{
         }
         batch.end();
         batch.setShader(null);
+        Profiler.end(Profiler.Section.renderCity);
 
+        Profiler.begin(Profiler.Section.renderBoard);
+        RenderStats.pass(RenderStats.Pass.board);
         batch.begin();
         {
             gameBoard.render(batch);
-            particles.draw(batch, Particles.Layer.front);
+            if (game.ownsParticles(this)) {
+                particles.draw(batch, Particles.Layer.front, game.getStepAlpha());
+            }
         }
         batch.end();
 
+        Profiler.end(Profiler.Section.renderBoard);
+
+        Profiler.begin(Profiler.Section.renderHud);
+        RenderStats.pass(RenderStats.Pass.hud);
         batch.setProjectionMatrix(hudCamera.combined);
         batch.begin();
         {
@@ -107,9 +141,12 @@ public class GameScreen extends BaseScreen{
             }
             // render settings over dude - so they can't be punched
             gameHud.renderSettings(batch);
-            particles.draw(batch, Particles.Layer.overlay);
+            if (game.ownsParticles(this)) {
+                particles.draw(batch, Particles.Layer.overlay, game.getStepAlpha());
+            }
         }
         batch.end();
+        Profiler.end(Profiler.Section.renderHud);
     }
 
     @Override
@@ -121,6 +158,7 @@ public class GameScreen extends BaseScreen{
     boolean gameEnded = false;
     public void gameOver() {
         if (!gameEnded) {
+            gameBoard.saveRecording();
             game.setScreen(new EndScreen(game, gameHud.getCurrentScore(), gameHud.getCurrentRank()));
             gameEnded = true;
         }
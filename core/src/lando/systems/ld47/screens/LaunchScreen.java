@@ -35,6 +35,8 @@ public class LaunchScreen extends BaseScreen {
         }
         titleLabel.update(dt);
         accum += dt;
+        // a couple of milliseconds a frame while nothing else is going on
+        particles.warmUp(2000000);
     }
 
     @Override
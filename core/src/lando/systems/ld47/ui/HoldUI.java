@@ -17,6 +17,7 @@ public class HoldUI extends UserInterface implements IShootable {
     public Tetrad hold;
     private float size;
     protected final Vector2 center;
+    private final Vector2 target = new Vector2();
     private String text;
 
     public HoldUI(GameState gameState, float x, float y, String text) {
@@ -30,9 +31,7 @@ public class HoldUI extends UserInterface implements IShootable {
 
     @Override
     public void update(float dt) {
-        if (gameState.gameScreen.playerInput.isHoldPressed()) {
-            hold = gameState.gameScreen.gameBoard.swapActiveTetrad(hold);
-        }
+        hold = gameState.gameScreen.gameBoard.getHoldTetrad();
 
         if (hold != null) {
             hold.scale = .7f;
@@ -66,11 +65,16 @@ public class HoldUI extends UserInterface implements IShootable {
             gameState.gameScreen.playSound(Audio.Sounds.holdUIExplode);
             gameState.gameScreen.particles.addPiecePunchedParticles(center.x, center.y, hold.color);
             hold = null;
+            discard();
         }
     }
 
+    protected void discard() {
+        gameState.gameScreen.gameBoard.discardHold();
+    }
+
     @Override
     public Vector2 getTarget() {
-        return new Vector2(center.x, center.y);
+        return target.set(center);
     }
 }
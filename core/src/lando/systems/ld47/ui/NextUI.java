@@ -18,8 +18,7 @@ public class NextUI extends HoldUI {
     }
 
     @Override
-    public void hit() {
-        super.hit();
-        gameState.popNext();
+    protected void discard() {
+        gameState.gameScreen.gameBoard.discardNext();
     }
 }
@@ -6,6 +6,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.StringBuilder;
 import lando.systems.ld47.GameState;
 
 public class ScoreUI extends UserInterface {
@@ -40,50 +41,43 @@ public class ScoreUI extends UserInterface {
         }
     }
 
+    // reused every frame so drawing the numbers doesn't make garbage strings
+    private final StringBuilder text = new StringBuilder();
+
     public void draw(SpriteBatch batch, Rectangle bounds) {
-        String timerText = "Timer: ";
+        float width = gameState.gameScreen.hudCamera.viewportWidth / 4 - 20f;
+        text.setLength(0);
+        text.append("Timer: ");
         int timer = Math.round(time);
         int hours = timer / 3600;
         int minutes = (timer % 3600) / 60;
         int seconds = timer % 60;
         if (hours > 0) {
-            timerText += hours + "h " + minutes + "m " + seconds + "s";
+            text.append(hours).append("h ").append(minutes).append("m ").append(seconds).append('s');
         }
         else if(minutes > 0) {
-            timerText += minutes + "m " + seconds + "s";
+            text.append(minutes).append("m ").append(seconds).append('s');
         }
         else {
-            String tempTime = Float.toString(Math.round(time * 100f) / 100f);
-            if (tempTime.contains(".")) {
-                String tempInteger = tempTime.split("\\.")[0];
-                String tempDecimal = tempTime.split("\\.")[1];
-                switch (tempDecimal.length()) {
-                    case 0:
-                        tempDecimal +="00";
-                        break;
-                    case 1:
-                        tempDecimal += "0";
-                        break;
-                    default:
-                        break;
-                }
-                timerText += tempInteger + "." + tempDecimal + "s";
-            }
-            else {
-                timerText += tempTime + "s";
-            }
+            int hundredths = Math.round(time * 100f);
+            text.append(hundredths / 100).append('.');
+            if (hundredths % 100 < 10) text.append('0');
+            text.append(hundredths % 100).append('s');
         }
         assets.bladeFont32.getData().setScale(.7f);
-        layout.setText(assets.bladeFont32, timerText, Color.WHITE, gameState.gameScreen.hudCamera.viewportWidth / 4 - 20f, Align.left, false);
+        layout.setText(assets.bladeFont32, text, Color.WHITE, width, Align.left, false);
         assets.bladeFont32.draw(batch, layout, x, y);
-        String text = "score: " + Math.round(scoreLabel);
-        layout.setText(assets.bladeFont32, text, Color.WHITE, gameState.gameScreen.hudCamera.viewportWidth / 4 - 20f, Align.left, false);
+        text.setLength(0);
+        text.append("score: ").append(Math.round(scoreLabel));
+        layout.setText(assets.bladeFont32, text, Color.WHITE, width, Align.left, false);
         assets.bladeFont32.draw(batch, layout, x, y - 50f);
-        String lineClearText = "line cleared: " + Math.round(lineClearedLabel);
-        layout.setText(assets.bladeFont32, lineClearText, Color.WHITE, gameState.gameScreen.hudCamera.viewportWidth / 4 - 20f, Align.left, false);
+        text.setLength(0);
+        text.append("line cleared: ").append(Math.round(lineClearedLabel));
+        layout.setText(assets.bladeFont32, text, Color.WHITE, width, Align.left, false);
         assets.bladeFont32.draw(batch, layout, x, y - 100f);
-        String currentComboText = "current combo: " + combo;
-        layout.setText(assets.bladeFont32, currentComboText, Color.WHITE, gameState.gameScreen.hudCamera.viewportWidth / 4 - 20f, Align.left, false);
+        text.setLength(0);
+        text.append("current combo: ").append(combo);
+        layout.setText(assets.bladeFont32, text, Color.WHITE, width, Align.left, false);
         assets.bladeFont32.draw(batch, layout, x, y - 150f);
         assets.bladeFont32.getData().setScale(1f);
 
@@ -15,6 +15,8 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Align;
+import lando.systems.ld47.Config;
+import lando.systems.ld47.particles.ParticleBudget;
 import lando.systems.ld47.screens.BaseScreen;
 import lando.systems.ld47.utils.accessors.*;
 
@@ -71,6 +73,10 @@ public class SettingsUI extends UserInterface {
     private final Toggle soundToggle;
     private final Toggle ghostToggle;
     private final Toggle bitchModeToggle;
+    // the middle button cycles the chosen quality, the right one shows what the budget is running at
+    private final Toggle particleToggle;
+    private static final String[] qualityText = { "Low", "Medium", "High" };
+    private static final String[] qualityNowText = { "Now low", "Now medium", "Now high" };
     private final float columnWidth;
     private final float columnHeight;
 
@@ -98,7 +104,7 @@ public class SettingsUI extends UserInterface {
                 finalWindowBounds.x + finalWindowBounds.width / 2f - buttonWidth / 2f,
                 finalWindowBounds.y + margin_button, buttonWidth, 80f);
 
-        int rows = 4;
+        int rows = 5;
         float headerHeight = 50f; // ??? just a guess
         float rowMargin = 20f;
         float yTop = finalWindowBounds.y + finalWindowBounds.height - headerHeight - rowMargin;
@@ -134,6 +140,12 @@ public class SettingsUI extends UserInterface {
         this.musicToggle.boundsText.set(musicToggle.bounds.x + 0f * columnWidth + inset, musicToggle.bounds.y + inset, columnWidth - 2f * inset, columnHeight - 2f * inset);
         this.musicToggle.boundsOn  .set(musicToggle.bounds.x + 1f * columnWidth + inset, musicToggle.bounds.y + inset, columnWidth - 2f * inset, columnHeight - 2f * inset);
         this.musicToggle.boundsOff .set(musicToggle.bounds.x + 2f * columnWidth + inset, musicToggle.bounds.y + inset, columnWidth - 2f * inset, columnHeight - 2f * inset);
+
+        this.particleToggle = new Toggle("Particles");
+        this.particleToggle.bounds.set(finalWindowBounds.x + rowMargin, yBottom + 4f * rowHeight, rowWidth, rowHeight);
+        this.particleToggle.boundsText.set(particleToggle.bounds.x + 0f * columnWidth + inset, particleToggle.bounds.y + inset, columnWidth - 2f * inset, columnHeight - 2f * inset);
+        this.particleToggle.boundsOn  .set(particleToggle.bounds.x + 1f * columnWidth + inset, particleToggle.bounds.y + inset, columnWidth - 2f * inset, columnHeight - 2f * inset);
+        this.particleToggle.boundsOff .set(particleToggle.bounds.x + 2f * columnWidth + inset, particleToggle.bounds.y + inset, columnWidth - 2f * inset, columnHeight - 2f * inset);
     }
 
     @Override
@@ -199,6 +211,10 @@ public class SettingsUI extends UserInterface {
             } else if (bitchModeToggle.boundsOff.contains(touchPos.x, touchPos.y)) {
                 gameState.setBitchMode(true);
             }
+
+            if (particleToggle.boundsOn.contains(touchPos.x, touchPos.y)) {
+                Config.particleQuality = Config.particleQuality.next();
+            }
         }
     }
 
@@ -393,6 +409,34 @@ public class SettingsUI extends UserInterface {
                     assets.font.getData().setScale(0.7f);
 
                 }
+
+                // - particle quality (low, medium, high) and the level it's throttled to right now
+                {
+                    // description text
+                    assets.font.getData().setScale(1.6f);
+                    layout.setText(assets.font, particleToggle.description, deep_sky_blue, particleToggle.boundsText.width, Align.center, false);
+                    assets.font.draw(batch, layout, particleToggle.boundsText.x, particleToggle.boundsText.y + particleToggle.boundsText.height / 2f + layout.height / 2f);
+                    assets.font.getData().setScale(0.7f);
+
+                    // chosen quality button
+                    batch.setColor(aqua);
+                    batch.draw(assets.whitePixel, particleToggle.boundsOn.x, particleToggle.boundsOn.y, particleToggle.boundsOn.width, particleToggle.boundsOn.height);
+                    batch.setColor(Color.WHITE);
+                    assets.screws.draw(batch, particleToggle.boundsOn.x, particleToggle.boundsOn.y, particleToggle.boundsOn.width, particleToggle.boundsOn.height);
+
+                    assets.font.getData().setScale(1f);
+                    layout.setText(assets.font, qualityText[Config.particleQuality.ordinal()], deep_pink, particleToggle.boundsOn.width, Align.center, false);
+                    assets.font.draw(batch, layout, particleToggle.boundsOn.x, particleToggle.boundsOn.y + particleToggle.boundsOn.height / 2f + layout.height / 2f);
+                    assets.font.getData().setScale(0.7f);
+
+                    // current level, not a button
+                    ParticleBudget.Quality current = screen.particles.budget.getQuality();
+                    Color currentTextColor = (current == Config.particleQuality) ? Color.DARK_GRAY : deep_pink;
+                    assets.font.getData().setScale(1f);
+                    layout.setText(assets.font, qualityNowText[current.ordinal()], currentTextColor, particleToggle.boundsOff.width, Align.center, false);
+                    assets.font.draw(batch, layout, particleToggle.boundsOff.x, particleToggle.boundsOff.y + particleToggle.boundsOff.height / 2f + layout.height / 2f);
+                    assets.font.getData().setScale(0.7f);
+                }
             }
 
             // ok button
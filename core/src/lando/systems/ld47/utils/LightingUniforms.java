@@ -0,0 +1,158 @@
+package lando.systems.ld47.utils;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * The lighting uniforms of one shader, looked up once instead of by name every frame.
+ * A program keeps its uniform values between draws, so each value is remembered here and only sent
+ * again when it changed, or when the shader got rebuilt and has a new handle.
+ */
+public class LightingUniforms {
+
+    // how many uniform values were sent and how many were skipped because the shader already had them,
+    // running totals that RenderStats turns into per frame numbers
+    private static int uploads;
+    private static int skipped;
+
+    private final ShaderProgram shader;
+    private int handle = -1;
+
+    private int projTrans;
+    private int viewPos;
+    private int ambient;
+    private int directionDir;
+    private int directionColor;
+    private int[] lightPosition;
+    private int[] lightFalloff;
+    private int[] lightColor;
+
+    // what the shader holds right now
+    private final Matrix4 sentProjTrans = new Matrix4();
+    private final Vector3 sentViewPos = new Vector3();
+    private final Color sentAmbient = new Color();
+    private final Vector3 sentDirectionDir = new Vector3();
+    private final Color sentDirectionColor = new Color();
+    private Vector3[] sentLightPosition;
+    private float[] sentLightFalloff;
+    private Color[] sentLightColor;
+    private boolean valid;
+
+    public LightingUniforms(ShaderProgram shader) {
+        this.shader = shader;
+    }
+
+    private void resolve(int lights) {
+        handle = shader.getHandle();
+        projTrans      = shader.fetchUniformLocation("u_projTrans", false);
+        viewPos        = shader.fetchUniformLocation("u_viewPos", false);
+        ambient        = shader.fetchUniformLocation("u_ambient", false);
+        directionDir   = shader.fetchUniformLocation("u_direction_dir", false);
+        directionColor = shader.fetchUniformLocation("u_direction_color", false);
+        lightPosition = new int[lights];
+        lightFalloff = new int[lights];
+        lightColor = new int[lights];
+        sentLightPosition = new Vector3[lights];
+        sentLightFalloff = new float[lights];
+        sentLightColor = new Color[lights];
+        for (int i = 0; i < lights; i++) {
+            lightPosition[i] = shader.fetchUniformLocation("u_pointLights[" + i + "].position", false);
+            lightFalloff[i]  = shader.fetchUniformLocation("u_pointLights[" + i + "].falloff", false);
+            lightColor[i]    = shader.fetchUniformLocation("u_pointLights[" + i + "].color", false);
+            sentLightPosition[i] = new Vector3();
+            sentLightColor[i] = new Color();
+        }
+        valid = false;
+    }
+
+    // the shader has to be bound already
+    public void apply(Camera camera, Color ambientColor, Vector3 direction, Color directionColor, PointLight[] lights) {
+        if (handle != shader.getHandle() || lightPosition == null || lightPosition.length != lights.length) {
+            resolve(lights.length);
+        }
+        boolean all = !valid;
+
+        if (all || !same(sentProjTrans, camera.combined)) {
+            send(projTrans, camera.combined);
+            sentProjTrans.set(camera.combined);
+        } else skipped++;
+        if (all || !sentViewPos.equals(camera.position)) {
+            send(viewPos, camera.position);
+            sentViewPos.set(camera.position);
+        } else skipped++;
+        if (all || !same(sentAmbient, ambientColor)) {
+            send(ambient, ambientColor);
+            sentAmbient.set(ambientColor);
+        } else skipped++;
+        if (all || !sentDirectionDir.equals(direction)) {
+            send(directionDir, direction);
+            sentDirectionDir.set(direction);
+        } else skipped++;
+        if (all || !same(sentDirectionColor, directionColor)) {
+            send(this.directionColor, directionColor);
+            sentDirectionColor.set(directionColor);
+        } else skipped++;
+
+        for (int i = 0; i < lights.length; i++) {
+            PointLight light = lights[i];
+            if (all || !sentLightPosition[i].equals(light.pos)) {
+                send(lightPosition[i], light.pos);
+                sentLightPosition[i].set(light.pos);
+            } else skipped++;
+            if (all || sentLightFalloff[i] != light.falloff) {
+                if (lightFalloff[i] != -1) shader.setUniformf(lightFalloff[i], light.falloff);
+                uploads++;
+                sentLightFalloff[i] = light.falloff;
+            } else skipped++;
+            if (all || !same(sentLightColor[i], light.color)) {
+                send(lightColor[i], light.color);
+                sentLightColor[i].set(light.color);
+            } else skipped++;
+        }
+        valid = true;
+    }
+
+    public static int getUploads() {
+        return uploads;
+    }
+
+    public static int getSkipped() {
+        return skipped;
+    }
+
+    // the shader was rebuilt or something else set its uniforms, send everything next time
+    public void invalidate() {
+        valid = false;
+    }
+
+    private static boolean same(Matrix4 a, Matrix4 b) {
+        for (int i = 0; i < 16; i++) {
+            if (a.val[i] != b.val[i]) return false;
+        }
+        return true;
+    }
+
+    // Color.equals only compares the 8 bit packed values
+    private static boolean same(Color a, Color b) {
+        return a.r == b.r && a.g == b.g && a.b == b.b && a.a == b.a;
+    }
+
+    private void send(int location, Matrix4 value) {
+        if (location != -1) shader.setUniformMatrix(location, value);
+        uploads++;
+    }
+
+    private void send(int location, Vector3 value) {
+        if (location != -1) shader.setUniformf(location, value);
+        uploads++;
+    }
+
+    private void send(int location, Color value) {
+        if (location != -1) shader.setUniformf(location, value);
+        uploads++;
+    }
+
+}
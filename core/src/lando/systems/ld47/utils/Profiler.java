@@ -0,0 +1,111 @@
+package lando.systems.ld47.utils;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Arrays;
+
+/**
+ * Times named sections of the frame and keeps the most recent samples of each in a ring,
+ * so percentiles reflect the last minute or so while max and count cover the whole run.
+ * Everything returns straight away while it's off. A sink can be attached to forward every section
+ * somewhere else as well, the desktop launcher hands it to flight recorder.
+ */
+public class Profiler {
+
+    public enum Section {
+        frame, tween, audio, screenUpdate, hud, step, board, opponent, particles, decals,
+        renderFrameBuffers, boardMesh, renderCity, renderBoard, renderHud, transition
+    }
+
+    public interface Sink {
+        void begin(Section section);
+        void end(Section section, long nanos);
+    }
+
+    // about a minute of frames at 60fps
+    private static final int SAMPLES = 4096;
+    private static final int SECTIONS = Section.values().length;
+
+    private static boolean enabled;
+    private static Sink sink;
+
+    private static final long[] started = new long[SECTIONS];
+    private static final long[][] samples = new long[SECTIONS][SAMPLES];
+    private static final int[] next = new int[SECTIONS];
+    private static final long[] count = new long[SECTIONS];
+    private static final long[] max = new long[SECTIONS];
+    private static final long[] sorted = new long[SAMPLES];
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Profiler.enabled = enabled;
+    }
+
+    public static void setSink(Sink sink) {
+        Profiler.sink = sink;
+    }
+
+    public static void begin(Section section) {
+        if (!enabled) return;
+        if (sink != null) sink.begin(section);
+        started[section.ordinal()] = TimeUtils.nanoTime();
+    }
+
+    public static void end(Section section) {
+        if (!enabled) return;
+        int i = section.ordinal();
+        long nanos = TimeUtils.nanoTime() - started[i];
+        samples[i][next[i]] = nanos;
+        next[i] = (next[i] + 1) % SAMPLES;
+        count[i]++;
+        if (nanos > max[i]) max[i] = nanos;
+        if (sink != null) sink.end(section, nanos);
+    }
+
+    public static void reset() {
+        for (int i = 0; i < SECTIONS; i++) {
+            next[i] = 0;
+            count[i] = 0;
+            max[i] = 0;
+        }
+    }
+
+    public static long getCount(Section section) {
+        return count[section.ordinal()];
+    }
+
+    public static long getMaxNanos(Section section) {
+        return max[section.ordinal()];
+    }
+
+    // percentile between 0 and 1 over the samples still in the ring
+    public static long getPercentileNanos(Section section, float percentile) {
+        int i = section.ordinal();
+        int n = (int) Math.min(count[i], SAMPLES);
+        if (n == 0) return 0;
+        System.arraycopy(samples[i], 0, sorted, 0, n);
+        Arrays.sort(sorted, 0, n);
+        int index = Math.min(n - 1, (int) (percentile * n));
+        return sorted[index];
+    }
+
+    // microseconds, one line per section that ran
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Section section : Section.values()) {
+            if (count[section.ordinal()] == 0) continue;
+            sb.append(section.name())
+              .append(": n=").append(getCount(section))
+              .append(" p50=").append(getPercentileNanos(section, .5f) / 1000)
+              .append(" p95=").append(getPercentileNanos(section, .95f) / 1000)
+              .append(" p99=").append(getPercentileNanos(section, .99f) / 1000)
+              .append(" max=").append(getMaxNanos(section) / 1000)
+              .append('\n');
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,187 @@
+package lando.systems.ld47.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GL20Interceptor;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+import java.nio.Buffer;
+
+/**
+ * Counts what each render pass asks of the gpu, frame by frame.
+ * Once enabled every gl call goes through a counting wrapper around whatever gl the backend gave us,
+ * a stub one in headless runs just as well as the real thing. Screens call pass() when they move on to
+ * the next part of the frame and everything since the last call is put on the pass before it.
+ * Vertex and index buffer uploads are counted here too, whichever mesh or batch makes them.
+ * The wrapper checks glGetError after every call, so leave it off unless you're looking at the numbers.
+ */
+public class RenderStats {
+
+    public enum Pass { other, city, board, decals, hud, transition }
+
+    public enum Stat { drawCalls, shaderSwitches, textureBinds, vertexBytes, indexBytes, fboBinds, batchFlushes, glCalls, uniformUploads, uniformsSkipped }
+
+    private static final int PASSES = Pass.values().length;
+    private static final int STATS = Stat.values().length;
+
+    private static CountingGL20 counting;
+    private static GL20 original;
+    private static SpriteBatch batch;
+    private static Pass current = Pass.other;
+
+    private static final int[] frame = new int[PASSES * STATS];
+    private static final int[] lastFrame = new int[PASSES * STATS];
+    private static final int[] mark = new int[STATS];
+    private static final int[] now = new int[STATS];
+    private static int frames;
+
+    public static boolean isEnabled() {
+        return counting != null;
+    }
+
+    // batch is the sprite batch whose flushes get counted, it may be null
+    public static void enable(SpriteBatch spriteBatch) {
+        if (counting != null) return;
+        batch = spriteBatch;
+        original = Gdx.gl20;
+        counting = new CountingGL20(new GLProfiler(Gdx.graphics), original);
+        install(counting);
+        clear();
+    }
+
+    public static void disable() {
+        if (counting == null) return;
+        install(original);
+        counting = null;
+        original = null;
+        batch = null;
+    }
+
+    private static void install(GL20 gl) {
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Gdx.graphics.setGL20(gl);
+    }
+
+    private static void clear() {
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = 0;
+            lastFrame[i] = 0;
+        }
+        current = Pass.other;
+        sample(mark);
+    }
+
+    // everything from here on belongs to the given pass
+    public static void pass(Pass pass) {
+        if (counting == null) return;
+        collect();
+        current = pass;
+    }
+
+    // call at the start of each frame, what was counted so far becomes the last frame
+    public static void endFrame() {
+        if (counting == null) return;
+        collect();
+        System.arraycopy(frame, 0, lastFrame, 0, frame.length);
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = 0;
+        }
+        current = Pass.other;
+        frames++;
+    }
+
+    public static int get(Pass pass, Stat stat) {
+        return lastFrame[pass.ordinal() * STATS + stat.ordinal()];
+    }
+
+    // summed over every pass
+    public static int get(Stat stat) {
+        int total = 0;
+        for (int i = 0; i < PASSES; i++) {
+            total += lastFrame[i * STATS + stat.ordinal()];
+        }
+        return total;
+    }
+
+    public static int getFrames() {
+        return frames;
+    }
+
+    // one line per pass that did anything, for the log
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Pass pass : Pass.values()) {
+            int base = pass.ordinal() * STATS;
+            boolean any = false;
+            for (int i = 0; i < STATS; i++) {
+                if (lastFrame[base + i] != 0) any = true;
+            }
+            if (!any) continue;
+            sb.append(pass.name()).append(':');
+            for (Stat stat : Stat.values()) {
+                sb.append(' ').append(stat.name()).append('=').append(lastFrame[base + stat.ordinal()]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void collect() {
+        sample(now);
+        int base = current.ordinal() * STATS;
+        for (int i = 0; i < STATS; i++) {
+            frame[base + i] += now[i] - mark[i];
+            mark[i] = now[i];
+        }
+    }
+
+    private static void sample(int[] out) {
+        out[Stat.drawCalls.ordinal()] = counting.getDrawCalls();
+        out[Stat.shaderSwitches.ordinal()] = counting.getShaderSwitches();
+        out[Stat.textureBinds.ordinal()] = counting.getTextureBindings();
+        out[Stat.vertexBytes.ordinal()] = counting.vertexBytes;
+        out[Stat.indexBytes.ordinal()] = counting.indexBytes;
+        out[Stat.fboBinds.ordinal()] = counting.fboBinds;
+        out[Stat.batchFlushes.ordinal()] = batch != null ? batch.totalRenderCalls : 0;
+        out[Stat.glCalls.ordinal()] = counting.getCalls();
+        out[Stat.uniformUploads.ordinal()] = LightingUniforms.getUploads();
+        out[Stat.uniformsSkipped.ordinal()] = LightingUniforms.getSkipped();
+    }
+
+    // the stock interceptor already counts draws, shader switches and texture binds, this adds the rest
+    private static class CountingGL20 extends GL20Interceptor {
+        int vertexBytes;
+        int indexBytes;
+        int fboBinds;
+
+        CountingGL20(GLProfiler profiler, GL20 gl) {
+            super(profiler, gl);
+        }
+
+        @Override
+        public void glBindFramebuffer(int target, int framebuffer) {
+            fboBinds++;
+            super.glBindFramebuffer(target, framebuffer);
+        }
+
+        @Override
+        public void glBufferData(int target, int size, Buffer data, int usage) {
+            count(target, size);
+            super.glBufferData(target, size, data, usage);
+        }
+
+        @Override
+        public void glBufferSubData(int target, int offset, int size, Buffer data) {
+            count(target, size);
+            super.glBufferSubData(target, offset, size, data);
+        }
+
+        private void count(int target, int size) {
+            if (target == GL20.GL_ARRAY_BUFFER) vertexBytes += size;
+            else if (target == GL20.GL_ELEMENT_ARRAY_BUFFER) indexBytes += size;
+        }
+    }
+
+}
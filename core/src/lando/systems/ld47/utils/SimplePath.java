@@ -4,6 +4,7 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.BSpline;
 import com.badlogic.gdx.math.CatmullRomSpline;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Path;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.GdxRuntimeException;
@@ -13,6 +14,9 @@ public class SimplePath {
     public enum Type { catmull, bspline }
 
     private static final int NUM_DEBUG_POINTS = 100;
+    private static final int NUM_ARC_LENGTH_POINTS = 64;
+    // spline samples measured for each point in the arc length table
+    private static final int ARC_LENGTH_SUBSAMPLES = 8;
     private static final boolean CONTINUOUS_BY_DEFAULT = false;
 
     private Vector2[] debugPoints;
@@ -21,6 +25,14 @@ public class SimplePath {
     private Path<Vector2> path;
     private Type type;
 
+    // points spaced evenly along the path by distance, so moving through them at a steady rate is a steady speed
+    private float[] arcX;
+    private float[] arcY;
+    private float[] arcDistances;
+    private final Vector2 arcPrevious = new Vector2();
+    private final Vector2 arcNext = new Vector2();
+    private float length;
+
     public SimplePath(Vector2... controlPoints) {
         this(CONTINUOUS_BY_DEFAULT, controlPoints);
     }
@@ -89,6 +101,82 @@ public class SimplePath {
         return path.derivativeAt(out,t);
     }
 
+    // moves a control point, build the arc length table again once they're all where they should be
+    public SimplePath setControlPoint(int index, float x, float y) {
+        controlPoints[index].set(x, y);
+        return this;
+    }
+
+    public SimplePath buildArcLengthTable() {
+        return buildArcLengthTable(NUM_ARC_LENGTH_POINTS);
+    }
+
+    // measures the path once and keeps numPoints positions evenly spaced along it
+    // the arrays are kept, so building again for the same number of points doesn't allocate
+    public SimplePath buildArcLengthTable(int numPoints) {
+        int samples = (numPoints - 1) * ARC_LENGTH_SUBSAMPLES;
+        if (arcDistances == null || arcDistances.length != samples + 1) {
+            arcDistances = new float[samples + 1];
+        }
+        float[] distances = arcDistances;
+        distances[0] = 0;
+        Vector2 previous = path.valueAt(arcPrevious, 0f);
+        Vector2 next = arcNext;
+        for (int i = 1; i <= samples; i++) {
+            path.valueAt(next, (float) i / samples);
+            distances[i] = distances[i - 1] + next.dst(previous);
+            previous.set(next);
+        }
+        length = distances[samples];
+
+        if (arcX == null || arcX.length != numPoints) {
+            arcX = new float[numPoints];
+            arcY = new float[numPoints];
+        }
+        for (int i = 0; i < numPoints; i++) {
+            float distance = length * i / (numPoints - 1);
+            // last sample at or before the distance
+            int low = 0;
+            int high = samples;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (distances[mid] <= distance) low = mid;
+                else                            high = mid - 1;
+            }
+            float t = low;
+            if (low < samples && distances[low + 1] > distances[low]) {
+                t += (distance - distances[low]) / (distances[low + 1] - distances[low]);
+            }
+            path.valueAt(next, t / samples);
+            arcX[i] = next.x;
+            arcY[i] = next.y;
+        }
+        return this;
+    }
+
+    // position at a fraction of the way along the path by distance
+    // builds the table on first use if nobody did yet, build it up front where that allocation matters
+    public Vector2 valueAtArcLength(Vector2 out, float fraction) {
+        if (arcX == null) {
+            buildArcLengthTable(NUM_ARC_LENGTH_POINTS);
+        }
+        float index = MathUtils.clamp(fraction, 0f, 1f) * (arcX.length - 1);
+        int i = (int) index;
+        if (i >= arcX.length - 1) {
+            return out.set(arcX[arcX.length - 1], arcY[arcY.length - 1]);
+        }
+        float alpha = index - i;
+        return out.set(arcX[i] + (arcX[i + 1] - arcX[i]) * alpha,
+                       arcY[i] + (arcY[i + 1] - arcY[i]) * alpha);
+    }
+
+    public float getLength() {
+        if (arcX == null) {
+            buildArcLengthTable(NUM_ARC_LENGTH_POINTS);
+        }
+        return length;
+    }
+
     public float locate(Vector2 v) {
         return path.locate(v);
     }
@@ -0,0 +1,58 @@
+package lando.systems.ld47.utils;
+
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Geometry that hardly ever changes, the back plate, the board frame, decorations.
+ * Write into getVertices(), call markDirty() with how many floats were written, and it goes to the gpu
+ * once on the next render instead of every frame.
+ */
+public class StaticMesh implements Disposable {
+
+    private final Mesh mesh;
+    private final float[] vertices;
+    private final int floatsPerVertex;
+    private int floatsUsed;
+    private boolean dirty;
+
+    public StaticMesh(int maxVertices, VertexAttribute... attributes) {
+        this.mesh = new Mesh(true, maxVertices, 0, attributes);
+        this.floatsPerVertex = mesh.getVertexSize() / 4;
+        this.vertices = new float[maxVertices * floatsPerVertex];
+    }
+
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    public int getFloatsPerVertex() {
+        return floatsPerVertex;
+    }
+
+    public void markDirty(int floatsUsed) {
+        this.floatsUsed = floatsUsed;
+        this.dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void render(ShaderProgram shader, int primitiveType) {
+        if (dirty) {
+            mesh.setVertices(vertices, 0, floatsUsed);
+            dirty = false;
+        }
+        if (floatsUsed == 0) return;
+        mesh.render(shader, primitiveType, 0, floatsUsed / floatsPerVertex);
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+    }
+
+}
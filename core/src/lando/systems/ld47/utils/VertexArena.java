@@ -0,0 +1,122 @@
+package lando.systems.ld47.utils;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * One mesh carved into equal slices, so lots of small dynamic models can share a single vertex buffer
+ * instead of each holding a mesh sized for the worst case. A slice is handed out when something first
+ * needs to draw and handed back when it's done, the buffer doubles if it ever runs out.
+ * Everything is drawn as indexed quads, four vertices each, with the indices shared and only set when the buffer grows.
+ * Write every slice for the frame, upload() once, then draw each slice's range.
+ */
+public class VertexArena implements Disposable {
+
+    private final VertexAttribute[] attributes;
+    private final int floatsPerVertex;
+    public final int quadsPerSlice;
+    private final int verticesPerSlice;
+
+    private Mesh mesh;
+    private float[] vertices;
+    private int slices;
+    private int slicesUsed;
+    private final IntArray freeSlices = new IntArray();
+
+    public VertexArena(int quadsPerSlice, int initialSlices, VertexAttribute... attributes) {
+        this.attributes = attributes;
+        this.quadsPerSlice = quadsPerSlice;
+        this.verticesPerSlice = quadsPerSlice * 4;
+        // a packed color says 4 components but takes up a single float
+        this.floatsPerVertex = new VertexAttributes(attributes).vertexSize / 4;
+        allocate(initialSlices);
+    }
+
+    private void allocate(int slices) {
+        Mesh grown = new Mesh(false, slices * verticesPerSlice, slices * quadsPerSlice * 6, attributes);
+        grown.setIndices(quadIndices(slices * quadsPerSlice));
+        float[] grownVertices = new float[slices * verticesPerSlice * floatsPerVertex];
+        if (mesh != null) {
+            System.arraycopy(vertices, 0, grownVertices, 0, vertices.length);
+            mesh.dispose();
+        }
+        this.mesh = grown;
+        this.vertices = grownVertices;
+        this.slices = slices;
+    }
+
+    public int obtain() {
+        if (freeSlices.size > 0) {
+            return freeSlices.pop();
+        }
+        if (slicesUsed == slices) {
+            allocate(slices * 2);
+        }
+        return slicesUsed++;
+    }
+
+    public void free(int slice) {
+        freeSlices.add(slice);
+    }
+
+    // the shared vertex array, fetch it again after obtaining a slice since growing replaces it
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    // index into getVertices() where the slice starts
+    public int getOffset(int slice) {
+        return slice * verticesPerSlice * floatsPerVertex;
+    }
+
+    public int getFloatsPerVertex() {
+        return floatsPerVertex;
+    }
+
+    // sends every slice handed out so far to the buffer in one go, call it once after writing and before drawing
+    public void upload() {
+        int floats = slicesUsed * verticesPerSlice * floatsPerVertex;
+        mesh.setVertices(vertices, 0, floats);
+    }
+
+    public void render(ShaderProgram shader, int slice, int quadCount) {
+        if (quadCount == 0) return;
+        mesh.render(shader, GL20.GL_TRIANGLES, slice * quadsPerSlice * 6, quadCount * 6);
+    }
+
+    public int getSliceCount() {
+        return slices;
+    }
+
+    public int getSlicesInUse() {
+        return slicesUsed - freeSlices.size;
+    }
+
+    // two triangles for every quad written as LL, UL, LR, UR
+    public static short[] quadIndices(int quads) {
+        if (quads * 4 > 0xFFFF) {
+            throw new IllegalArgumentException("Too many quads for short indices: " + quads);
+        }
+        short[] indices = new short[quads * 6];
+        for (int i = 0, vertex = 0; i < indices.length; i += 6, vertex += 4) {
+            indices[i]     = (short) vertex;
+            indices[i + 1] = (short) (vertex + 1);
+            indices[i + 2] = (short) (vertex + 2);
+            indices[i + 3] = (short) (vertex + 2);
+            indices[i + 4] = (short) (vertex + 1);
+            indices[i + 5] = (short) (vertex + 3);
+        }
+        return indices;
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+    }
+
+}
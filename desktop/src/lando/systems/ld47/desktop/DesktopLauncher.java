@@ -4,14 +4,36 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import lando.systems.ld47.Config;
 import lando.systems.ld47.Game;
+import lando.systems.ld47.engine.InputLog;
+import lando.systems.ld47.utils.Profiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class DesktopLauncher {
-	public static void main (String[] arg) {
+	public static void main (String[] arg) throws IOException {
+		// --replay <file> watches a recorded game, --replay-fast <file> just runs it through the rules and reports
+		// --profile times frame sections from the start and sends them to flight recorder when it's recording
+		InputLog replay = null;
+		if (arg.length >= 2 && arg[0].equals("--replay-fast")) {
+			ReplayRunner.main(new String[] { arg[1] });
+			return;
+		} else if (arg.length >= 2 && arg[0].equals("--replay")) {
+			replay = InputLog.read(Files.readAllBytes(Paths.get(arg[1])));
+		}
+		for (String a : arg) {
+			if (a.equals("--profile")) {
+				Profiler.setSink(new JfrProfilerSink());
+				Profiler.setEnabled(true);
+			}
+		}
+
 		Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
 		config.setTitle(Config.title);
 		config.setWindowedMode(Config.windowWidth, Config.windowHeight);
 		config.setResizable(Config.resizable);
 		config.setBackBufferConfig(8,8,8,8,16,0,16);
-		new Lwjgl3Application(new Game(), config);
+		new Lwjgl3Application(new Game(replay), config);
 	}
 }
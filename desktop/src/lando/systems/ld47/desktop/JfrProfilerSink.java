@@ -0,0 +1,49 @@
+package lando.systems.ld47.desktop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lando.systems.ld47.utils.Profiler;
+
+/**
+ * Turns every profiler section into a flight recorder event, so a long session on a cabinet can be
+ * recorded with -XX:StartFlightRecording and the spikes found on a timeline in Mission Control.
+ */
+public class JfrProfilerSink implements Profiler.Sink {
+
+	@Name("lando.systems.ld47.Section")
+	@Label("Game Section")
+	@Category("Block Runner 2049")
+	@Description("One timed section of a frame")
+	@StackTrace(false)
+	static class SectionEvent extends Event {
+		@Label("Section")
+		String section;
+	}
+
+	private final SectionEvent[] open = new SectionEvent[Profiler.Section.values().length];
+
+	@Override
+	public void begin(Profiler.Section section) {
+		SectionEvent event = new SectionEvent();
+		if (!event.isEnabled()) return;
+		event.section = section.name();
+		event.begin();
+		open[section.ordinal()] = event;
+	}
+
+	@Override
+	public void end(Profiler.Section section, long nanos) {
+		SectionEvent event = open[section.ordinal()];
+		if (event == null) return;
+		open[section.ordinal()] = null;
+		event.end();
+		if (event.shouldCommit()) {
+			event.commit();
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package lando.systems.ld47.desktop;
+
+import lando.systems.ld47.engine.BasicPiece;
+import lando.systems.ld47.engine.BoardEngine;
+import lando.systems.ld47.engine.InputLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Plays a recorded game back through the board engine alone, as fast as it will go,
+ * and checks it ends on the score and lines the recording says it did.
+ */
+public class ReplayRunner {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: ReplayRunner <replay file>");
+			System.exit(2);
+		}
+		boolean matched = run(InputLog.read(Files.readAllBytes(Paths.get(args[0]))));
+		System.exit(matched ? 0 : 1);
+	}
+
+	public static boolean run(InputLog log) {
+		InputLog.Player player = log.play();
+		BoardEngine<BasicPiece> engine = log.newHeadlessEngine();
+
+		long start = System.nanoTime();
+		while (player.step(engine)) {}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double simulated = engine.getTick() * log.getStepTime();
+
+		System.out.println(String.format("%d ticks (%.1fs of play) in %.3fs, %.0fx real time",
+				engine.getTick(), simulated, seconds, simulated / Math.max(seconds, 1e-9)));
+		System.out.println(String.format("score %d, lines %d", engine.getScore(), engine.getLines()));
+		if (player.getEndTick() < 0) {
+			System.out.println("recording has no end record, nothing to check against");
+			return true;
+		}
+		boolean matched = engine.getScore() == player.getEndScore() && engine.getLines() == player.getEndLines();
+		if (!matched) {
+			System.out.println(String.format("MISMATCH: recording ended on score %d, lines %d", player.getEndScore(), player.getEndLines()));
+		}
+		return matched;
+	}
+
+}
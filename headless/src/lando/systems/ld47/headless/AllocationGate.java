@@ -0,0 +1,135 @@
+package lando.systems.ld47.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import lando.systems.ld47.Config;
+import lando.systems.ld47.particles.ParticleBudget;
+import lando.systems.ld47.utils.Profiler;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a seeded headless game, drawing every frame against the stub gl, and fails when a run of one of
+ * the per frame paths allocates more than its budget. The first frames are skipped so pools, tweens and
+ * lazily built meshes can fill up, after that a steady frame should allocate nothing at all, so the budgets
+ * are the most any single run may allocate and they're all 0 unless overridden.
+ * The jvm allocates a little by itself the first time it runs some bytecode, resolving a call site or a string,
+ * and that lands in whatever section is running, so a few small runs over budget are let through as one-offs.
+ * Anything the game does every frame, every drop or every game runs far more often than that and still fails.
+ * Frames that start or end a screen change aren't counted, building the next screen is loading.
+ *
+ * --frames <n>            frames to measure (default 7200)
+ * --warmup <n>            frames to run before measuring (default 1800)
+ * --seed <n>              seed for the bot's key presses (default 47)
+ * --budget <section=n>    override the budget of one section in bytes per run, can be repeated
+ * --one-offs <n>          runs per section that may go over budget, by at most 1KB each (default 4)
+ */
+public class AllocationGate extends SoakRunner {
+
+    private static final Map<Profiler.Section, Long> budgets = new EnumMap<>(Profiler.Section.class);
+    static {
+        // GameBoard.update with every tetrad's update, hard drops and line clears included
+        budgets.put(Profiler.Section.board, 0L);
+        // the decals' update, inside the board
+        budgets.put(Profiler.Section.decals, 0L);
+        // Opponent and SassiAI.update
+        budgets.put(Profiler.Section.opponent, 0L);
+        budgets.put(Profiler.Section.particles, 0L);
+        // GameHud.update
+        budgets.put(Profiler.Section.hud, 0L);
+        // BoardMesh.update, the animated tetrads and the falling piece written and handed to the mesh
+        budgets.put(Profiler.Section.boardMesh, 0L);
+    }
+
+    // bigger than anything the jvm makes for itself, an arena or pool growing is well over it
+    private static final long ONE_OFF_BYTES = 1024;
+    private static long oneOffs = 4;
+
+    private final long warmup;
+    private AllocationSink sink;
+    private boolean failed;
+
+    public AllocationGate(long warmup, long frames, BotInput input) {
+        super(warmup + frames, 1f / 60f, input);
+        this.warmup = warmup;
+        getGame().skipRendering = false;
+    }
+
+    @Override
+    public void render() {
+        if (getFrame() == warmup) {
+            // the game only warms the decal pool up to what a person playing needs, the bot hard drops far more
+            getGame().particles.warmUp(TimeUnit.SECONDS.toNanos(10), ParticleBudget.MAX_PARTICLES, ParticleBudget.MAX_DECALS);
+            // made here so it counts the game thread
+            sink = new AllocationSink();
+            sink.calibrate(10000);
+            Gdx.app.log("Allocations", "an empty section reads " + sink.getEmptyCost() + " bytes, each read inside one "
+                    + sink.getReadCost() + " bytes");
+            Profiler.setSink(sink);
+            Profiler.setEnabled(true);
+        }
+        boolean transitioning = getGame().isTransitioning();
+        super.render();
+        if (sink != null) {
+            sink.endFrame(!transitioning && !getGame().isTransitioning());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (Map.Entry<Profiler.Section, Long> entry : budgets.entrySet()) {
+            Profiler.Section section = entry.getKey();
+            long maxBytes = sink.getMaxBytes(section);
+            boolean overBudget = maxBytes > entry.getValue();
+            boolean oneOff = overBudget && sink.getAllocatingRuns(section) <= oneOffs && maxBytes <= ONE_OFF_BYTES;
+            boolean over = overBudget && !oneOff;
+            if (over) failed = true;
+            Gdx.app.log("Allocations", section.name() + ": " + maxBytes + " bytes at most (budget " + entry.getValue()
+                    + ", frame " + sink.getMaxFrame(section) + "), " + sink.getAllocatingRuns(section) + " of "
+                    + sink.getRuns(section) + " runs allocated, " + sink.getBytes(section) + " bytes"
+                    + (over ? " OVER" : oneOff ? " one-off" : ""));
+        }
+        Gdx.app.log("Allocations", sink.getFrames() + " frames counted, " + sink.getDroppedFrames() + " dropped for screen changes");
+        Profiler.setEnabled(false);
+        Profiler.setSink(null);
+        super.dispose();
+        System.exit(failed ? 1 : 0);
+    }
+
+    public static void main(String[] args) {
+        long frames = 7200;
+        long warmup = 1800;
+        long seed = 47;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--frames": frames = Long.parseLong(args[++i]); break;
+                case "--warmup": warmup = Long.parseLong(args[++i]); break;
+                case "--seed":   seed = Long.parseLong(args[++i]); break;
+                case "--one-offs": oneOffs = Long.parseLong(args[++i]); break;
+                case "--budget":
+                    String[] budget = args[++i].split("=");
+                    budgets.put(Profiler.Section.valueOf(budget[0]), Long.parseLong(budget[1]));
+                    break;
+                default:
+                    System.err.println("unknown argument " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        Config.leaderboard = false;
+        Config.recordReplays = false;
+
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            e.printStackTrace();
+            System.exit(1);
+        });
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = 0f;
+        new HeadlessApplication(new AllocationGate(warmup, frames, new BotInput(seed)), config);
+    }
+
+}
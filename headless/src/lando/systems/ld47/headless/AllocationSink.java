@@ -0,0 +1,153 @@
+package lando.systems.ld47.headless;
+
+import lando.systems.ld47.utils.Profiler;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes the game thread allocates inside each profiler section, run by run.
+ * Sections nest, the decals run inside the board, so every section keeps its own start.
+ * Reading the counter can allocate by itself on some jvms, so calibrate() measures what an empty section
+ * and every extra read inside one cost, and that's taken off each run before it's counted.
+ * Runs are held until endFrame() says whether the frame counts, so a frame that was loading can be dropped.
+ */
+public class AllocationSink implements Profiler.Sink {
+
+    private static final int SECTIONS = Profiler.Section.values().length;
+    private static final int NESTED_READS = 8;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long threadId;
+    private final long[] started = new long[SECTIONS];
+    private final long[] readsAtStart = new long[SECTIONS];
+    private final long[] bytes = new long[SECTIONS];
+    private final long[] runs = new long[SECTIONS];
+    private final long[] allocatingRuns = new long[SECTIONS];
+    private final long[] max = new long[SECTIONS];
+    private final long[] maxFrame = new long[SECTIONS];
+    // the current frame's runs, until it's known whether they count
+    private final long[] frameBytes = new long[SECTIONS];
+    private final long[] frameRuns = new long[SECTIONS];
+    private final long[] frameAllocatingRuns = new long[SECTIONS];
+    private final long[] frameMax = new long[SECTIONS];
+    private long frames;
+    private long droppedFrames;
+    // every counter read so far, the ones inside a section are part of its overhead
+    private long reads;
+    private long emptyCost;
+    private long readCost;
+
+    // sections only ever run on the thread that makes the sink
+    public AllocationSink() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This jvm can't count allocated bytes per thread");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+    }
+
+    // the cheapest of many tries, so a gc or the jit kicking in halfway doesn't count
+    public void calibrate(int rounds) {
+        long empty = Long.MAX_VALUE;
+        long nested = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = read();
+            empty = Math.min(empty, read() - start);
+
+            start = read();
+            for (int j = 0; j < NESTED_READS; j++) {
+                read();
+            }
+            nested = Math.min(nested, read() - start);
+        }
+        emptyCost = empty;
+        readCost = Math.max(0, (nested - empty) / NESTED_READS);
+    }
+
+    private long read() {
+        reads++;
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+
+    @Override
+    public void begin(Profiler.Section section) {
+        int i = section.ordinal();
+        started[i] = read();
+        readsAtStart[i] = reads;
+    }
+
+    @Override
+    public void end(Profiler.Section section, long nanos) {
+        int i = section.ordinal();
+        long inner = reads - readsAtStart[i];
+        long allocated = read() - started[i] - emptyCost - inner * readCost;
+        if (allocated > 0) {
+            frameBytes[i] += allocated;
+            frameAllocatingRuns[i]++;
+            frameMax[i] = Math.max(frameMax[i], allocated);
+        }
+        frameRuns[i]++;
+    }
+
+    // keep is false for frames that shouldn't count, a screen being built or torn down
+    public void endFrame(boolean keep) {
+        for (int i = 0; i < SECTIONS; i++) {
+            if (keep) {
+                bytes[i] += frameBytes[i];
+                runs[i] += frameRuns[i];
+                allocatingRuns[i] += frameAllocatingRuns[i];
+                if (frameMax[i] > max[i]) {
+                    max[i] = frameMax[i];
+                    maxFrame[i] = frames;
+                }
+            }
+            frameBytes[i] = 0;
+            frameRuns[i] = 0;
+            frameAllocatingRuns[i] = 0;
+            frameMax[i] = 0;
+        }
+        if (keep) frames++;
+        else      droppedFrames++;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getEmptyCost() {
+        return emptyCost;
+    }
+
+    public long getReadCost() {
+        return readCost;
+    }
+
+    public long getBytes(Profiler.Section section) {
+        return bytes[section.ordinal()];
+    }
+
+    public long getRuns(Profiler.Section section) {
+        return runs[section.ordinal()];
+    }
+
+    // how many runs allocated anything at all
+    public long getAllocatingRuns(Profiler.Section section) {
+        return allocatingRuns[section.ordinal()];
+    }
+
+    // the most one run allocated
+    public long getMaxBytes(Profiler.Section section) {
+        return max[section.ordinal()];
+    }
+
+    // which counted frame that was, from 0
+    public long getMaxFrame(Profiler.Section section) {
+        return maxFrame[section.ordinal()];
+    }
+
+}
@@ -0,0 +1,101 @@
+package lando.systems.ld47.headless;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Random;
+
+/**
+ * Keyboard input for a run with nobody at the keyboard. Either plays back a script of
+ * "frame key [frames held]" lines, or mashes the game keys from a seeded random so runs repeat.
+ */
+public class BotInput extends MockInput {
+
+    private static final int[] KEYS = {
+            Input.Keys.LEFT, Input.Keys.RIGHT, Input.Keys.DOWN, Input.Keys.Q, Input.Keys.E, Input.Keys.SPACE, Input.Keys.K
+    };
+
+    private final Random random;
+    private final IntArray scriptFrames = new IntArray();
+    private final IntArray scriptKeys = new IntArray();
+    private final IntArray scriptHolds = new IntArray();
+    private int scriptIndex;
+
+    // frames each key has left to stay down, and whether it went down this frame
+    private final int[] held = new int[256];
+    private final boolean[] justPressed = new boolean[256];
+
+    public BotInput(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // one "frame key [frames held]" per line, key names as in Input.Keys.toString, # starts a comment
+    public static BotInput fromScript(String script) {
+        BotInput input = new BotInput(0);
+        for (String line : script.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            int key = Input.Keys.valueOf(parts[1]);
+            if (key == -1) {
+                throw new IllegalArgumentException("Unknown key in script: " + parts[1]);
+            }
+            input.scriptFrames.add(Integer.parseInt(parts[0]));
+            input.scriptKeys.add(key);
+            input.scriptHolds.add(parts.length > 2 ? Integer.parseInt(parts[2]) : 1);
+        }
+        return input;
+    }
+
+    public boolean isScripted() {
+        return scriptFrames.size > 0;
+    }
+
+    // decides what's down for the coming frame
+    public void nextFrame(long frame) {
+        for (int key = 0; key < held.length; key++) {
+            justPressed[key] = false;
+            if (held[key] > 0) held[key]--;
+        }
+        if (isScripted()) {
+            while (scriptIndex < scriptFrames.size && scriptFrames.get(scriptIndex) <= frame) {
+                press(scriptKeys.get(scriptIndex), scriptHolds.get(scriptIndex));
+                scriptIndex++;
+            }
+        } else if (random.nextInt(6) == 0) {
+            int key = KEYS[random.nextInt(KEYS.length)];
+            // drops are rarer so pieces get moved and turned on the way down
+            if (key == Input.Keys.SPACE && random.nextBoolean()) return;
+            press(key, 1 + random.nextInt(12));
+        }
+    }
+
+    private void press(int key, int frames) {
+        if (held[key] == 0) justPressed[key] = true;
+        held[key] = Math.max(held[key], frames);
+    }
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        if (key == Input.Keys.ANY_KEY) {
+            for (int k = 0; k < held.length; k++) {
+                if (held[k] > 0) return true;
+            }
+            return false;
+        }
+        return key >= 0 && key < held.length && held[key] > 0;
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        if (key == Input.Keys.ANY_KEY) {
+            for (int k = 0; k < justPressed.length; k++) {
+                if (justPressed[k]) return true;
+            }
+            return false;
+        }
+        return key >= 0 && key < justPressed.length && justPressed[key];
+    }
+
+}
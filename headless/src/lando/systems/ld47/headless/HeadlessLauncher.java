@@ -0,0 +1,61 @@
+package lando.systems.ld47.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import lando.systems.ld47.Config;
+import lando.systems.ld47.utils.Profiler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Plays the game with no display for soak and performance runs on build boxes.
+ *
+ * --frames <n>      how many frames to run, a minute is 3600 (default 36000)
+ * --seed <n>        seed for the bot's key presses (default 47)
+ * --script <file>   play back scripted key presses instead of the bot
+ * --realtime        run at 60 frames a second instead of as fast as possible
+ * --profile         time frame sections and print percentiles at the end
+ */
+public class HeadlessLauncher {
+
+    public static void main(String[] args) throws IOException {
+        long frames = 36000;
+        long seed = 47;
+        String script = null;
+        boolean realtime = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--frames":   frames = Long.parseLong(args[++i]); break;
+                case "--seed":     seed = Long.parseLong(args[++i]); break;
+                case "--script":   script = args[++i]; break;
+                case "--realtime": realtime = true; break;
+                case "--profile":  Profiler.setEnabled(true); break;
+                default:
+                    System.err.println("unknown argument " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        BotInput input = (script != null)
+                ? BotInput.fromScript(new String(Files.readAllBytes(Paths.get(script)), StandardCharsets.UTF_8))
+                : new BotInput(seed);
+
+        // nothing leaves the box and nothing piles up on disk
+        Config.leaderboard = false;
+        Config.recordReplays = false;
+
+        // a crash on the game thread should fail the run, not just end it
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            e.printStackTrace();
+            System.exit(1);
+        });
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = realtime ? 1f / 60f : 0f;
+        new HeadlessApplication(new SoakRunner(frames, 1f / 60f, input), config);
+    }
+
+}
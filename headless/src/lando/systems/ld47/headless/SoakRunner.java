@@ -0,0 +1,119 @@
+package lando.systems.ld47.headless;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.graphics.GL20;
+import lando.systems.ld47.Config;
+import lando.systems.ld47.Game;
+import lando.systems.ld47.screens.BaseScreen;
+import lando.systems.ld47.screens.GameScreen;
+import lando.systems.ld47.utils.Profiler;
+
+/**
+ * Runs the game for a set number of frames with a bot at the controls and nothing drawn.
+ * Every frame goes through the same update path as on desktop, the particles, the opponent's ai,
+ * the hud and the board, and a finished game is replaced by a new one straight away.
+ */
+public class SoakRunner implements ApplicationListener {
+
+    private final long frames;
+    private final float frameTime;
+    private final BotInput input;
+    private final GL20 gl = new StubGL20();
+    private final Graphics.BufferFormat bufferFormat = new Graphics.BufferFormat(8, 8, 8, 8, 16, 0, 0, false);
+    private final Game game;
+
+    private long frame;
+    private int games;
+    private long startNanos;
+    private int framesOffGameScreen;
+
+    public SoakRunner(long frames, float frameTime, BotInput input) {
+        this.frames = frames;
+        this.frameTime = frameTime;
+        this.input = input;
+        this.game = new Game() {
+            @Override
+            protected BaseScreen firstScreen() {
+                return new GameScreen(this);
+            }
+        };
+        game.skipRendering = true;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    @Override
+    public void create() {
+        // the headless backend has no gl at all, and its clock is the wall clock
+        Gdx.graphics = new MockGraphics() {
+            @Override public GL20 getGL20() { return gl; }
+            @Override public float getDeltaTime() { return frameTime; }
+            @Override public float getRawDeltaTime() { return frameTime; }
+            @Override public int getWidth() { return Config.windowWidth; }
+            @Override public int getHeight() { return Config.windowHeight; }
+            @Override public int getBackBufferWidth() { return Config.windowWidth; }
+            @Override public int getBackBufferHeight() { return Config.windowHeight; }
+            @Override public BufferFormat getBufferFormat() { return bufferFormat; }
+        };
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Gdx.input = input;
+        game.create();
+        games = 1;
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void render() {
+        input.nextFrame(frame);
+        game.render();
+        frame++;
+
+        // the end screen waits on a name, start over instead
+        if (game.getScreen() instanceof GameScreen) {
+            framesOffGameScreen = 0;
+        } else if (++framesOffGameScreen > 120) {
+            game.setScreen(new GameScreen(game));
+            games++;
+            framesOffGameScreen = 0;
+        }
+
+        if (frame >= frames) {
+            Gdx.app.exit();
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {}
+
+    @Override
+    public void pause() {}
+
+    @Override
+    public void resume() {}
+
+    @Override
+    public void dispose() {
+        long elapsed = System.nanoTime() - startNanos;
+        Gdx.app.log("Soak", frame + " frames, " + games + " games, "
+                + (elapsed / 1000000) + "ms, " + (frame > 0 ? elapsed / frame / 1000 : 0) + "us per frame");
+        if (Profiler.isEnabled()) {
+            Gdx.app.log("Soak", "\n" + Profiler.report());
+        }
+        game.dispose();
+    }
+
+}
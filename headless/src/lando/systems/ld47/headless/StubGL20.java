@@ -0,0 +1,182 @@
+package lando.systems.ld47.headless;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A GL20 that does nothing, for running the game without a display.
+ * Handles count up so nothing gets mistaken for a deleted object, shaders always compile and link,
+ * and every frame buffer is complete. Uniform lookups all come back as location 0 so pedantic
+ * shader programs don't complain, attributes come back missing so meshes skip binding them.
+ */
+public class StubGL20 implements GL20 {
+
+    private int handles;
+
+    @Override public void glActiveTexture(int p0) {}
+    @Override public void glBindTexture(int p0, int p1) {}
+    @Override public void glBlendFunc(int p0, int p1) {}
+    @Override public void glClear(int p0) {}
+    @Override public void glClearColor(float p0, float p1, float p2, float p3) {}
+    @Override public void glClearDepthf(float p0) {}
+    @Override public void glClearStencil(int p0) {}
+    @Override public void glColorMask(boolean p0, boolean p1, boolean p2, boolean p3) {}
+    @Override public void glCompressedTexImage2D(int p0, int p1, int p2, int p3, int p4, int p5, int p6, Buffer p7) {}
+    @Override public void glCompressedTexSubImage2D(int p0, int p1, int p2, int p3, int p4, int p5, int p6, int p7, Buffer p8) {}
+    @Override public void glCopyTexImage2D(int p0, int p1, int p2, int p3, int p4, int p5, int p6, int p7) {}
+    @Override public void glCopyTexSubImage2D(int p0, int p1, int p2, int p3, int p4, int p5, int p6, int p7) {}
+    @Override public void glCullFace(int p0) {}
+    @Override public void glDeleteTextures(int p0, IntBuffer p1) {}
+    @Override public void glDeleteTexture(int p0) {}
+    @Override public void glDepthFunc(int p0) {}
+    @Override public void glDepthMask(boolean p0) {}
+    @Override public void glDepthRangef(float p0, float p1) {}
+    @Override public void glDisable(int p0) {}
+    @Override public void glDrawArrays(int p0, int p1, int p2) {}
+    @Override public void glDrawElements(int p0, int p1, int p2, Buffer p3) {}
+    @Override public void glEnable(int p0) {}
+    @Override public void glFinish() {}
+    @Override public void glFlush() {}
+    @Override public void glFrontFace(int p0) {}
+    @Override public void glGenTextures(int p0, IntBuffer p1) { for (int i = 0; i < p0; i++) p1.put(p1.position() + i, ++handles); }
+    @Override public int glGenTexture() { return ++handles; }
+    @Override public int glGetError() { return 0; }
+    @Override public void glGetIntegerv(int pname, IntBuffer params) { params.put(params.position(), pname == GL20.GL_MAX_TEXTURE_SIZE ? 4096 : 0); }
+    @Override public String glGetString(int p0) { return "2.0 stub"; }
+    @Override public void glHint(int p0, int p1) {}
+    @Override public void glLineWidth(float p0) {}
+    @Override public void glPixelStorei(int p0, int p1) {}
+    @Override public void glPolygonOffset(float p0, float p1) {}
+    @Override public void glReadPixels(int p0, int p1, int p2, int p3, int p4, int p5, Buffer p6) {}
+    @Override public void glScissor(int p0, int p1, int p2, int p3) {}
+    @Override public void glStencilFunc(int p0, int p1, int p2) {}
+    @Override public void glStencilMask(int p0) {}
+    @Override public void glStencilOp(int p0, int p1, int p2) {}
+    @Override public void glTexImage2D(int p0, int p1, int p2, int p3, int p4, int p5, int p6, int p7, Buffer p8) {}
+    @Override public void glTexParameterf(int p0, int p1, float p2) {}
+    @Override public void glTexSubImage2D(int p0, int p1, int p2, int p3, int p4, int p5, int p6, int p7, Buffer p8) {}
+    @Override public void glViewport(int p0, int p1, int p2, int p3) {}
+    @Override public void glAttachShader(int p0, int p1) {}
+    @Override public void glBindAttribLocation(int p0, int p1, String p2) {}
+    @Override public void glBindBuffer(int p0, int p1) {}
+    @Override public void glBindFramebuffer(int p0, int p1) {}
+    @Override public void glBindRenderbuffer(int p0, int p1) {}
+    @Override public void glBlendColor(float p0, float p1, float p2, float p3) {}
+    @Override public void glBlendEquation(int p0) {}
+    @Override public void glBlendEquationSeparate(int p0, int p1) {}
+    @Override public void glBlendFuncSeparate(int p0, int p1, int p2, int p3) {}
+    @Override public void glBufferData(int p0, int p1, Buffer p2, int p3) {}
+    @Override public void glBufferSubData(int p0, int p1, int p2, Buffer p3) {}
+    @Override public int glCheckFramebufferStatus(int p0) { return GL20.GL_FRAMEBUFFER_COMPLETE; }
+    @Override public void glCompileShader(int p0) {}
+    @Override public int glCreateProgram() { return ++handles; }
+    @Override public int glCreateShader(int p0) { return ++handles; }
+    @Override public void glDeleteBuffer(int p0) {}
+    @Override public void glDeleteBuffers(int p0, IntBuffer p1) {}
+    @Override public void glDeleteFramebuffer(int p0) {}
+    @Override public void glDeleteFramebuffers(int p0, IntBuffer p1) {}
+    @Override public void glDeleteProgram(int p0) {}
+    @Override public void glDeleteRenderbuffer(int p0) {}
+    @Override public void glDeleteRenderbuffers(int p0, IntBuffer p1) {}
+    @Override public void glDeleteShader(int p0) {}
+    @Override public void glDetachShader(int p0, int p1) {}
+    @Override public void glDisableVertexAttribArray(int p0) {}
+    @Override public void glDrawElements(int p0, int p1, int p2, int p3) {}
+    @Override public void glEnableVertexAttribArray(int p0) {}
+    @Override public void glFramebufferRenderbuffer(int p0, int p1, int p2, int p3) {}
+    @Override public void glFramebufferTexture2D(int p0, int p1, int p2, int p3, int p4) {}
+    @Override public int glGenBuffer() { return ++handles; }
+    @Override public void glGenBuffers(int p0, IntBuffer p1) { for (int i = 0; i < p0; i++) p1.put(p1.position() + i, ++handles); }
+    @Override public void glGenerateMipmap(int p0) {}
+    @Override public int glGenFramebuffer() { return ++handles; }
+    @Override public void glGenFramebuffers(int p0, IntBuffer p1) { for (int i = 0; i < p0; i++) p1.put(p1.position() + i, ++handles); }
+    @Override public int glGenRenderbuffer() { return ++handles; }
+    @Override public void glGenRenderbuffers(int p0, IntBuffer p1) { for (int i = 0; i < p0; i++) p1.put(p1.position() + i, ++handles); }
+    @Override public String glGetActiveAttrib(int p0, int p1, IntBuffer p2, IntBuffer p3) { return ""; }
+    @Override public String glGetActiveUniform(int p0, int p1, IntBuffer p2, IntBuffer p3) { return ""; }
+    @Override public void glGetAttachedShaders(int p0, int p1, Buffer p2, IntBuffer p3) {}
+    @Override public int glGetAttribLocation(int p0, String p1) { return -1; }
+    @Override public void glGetBooleanv(int p0, Buffer p1) {}
+    @Override public void glGetBufferParameteriv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glGetFloatv(int p0, FloatBuffer p1) {}
+    @Override public void glGetFramebufferAttachmentParameteriv(int p0, int p1, int p2, IntBuffer p3) {}
+    @Override public void glGetProgramiv(int program, int pname, IntBuffer params) { params.put(params.position(), pname == GL20.GL_LINK_STATUS ? GL20.GL_TRUE : 0); }
+    @Override public String glGetProgramInfoLog(int p0) { return ""; }
+    @Override public void glGetRenderbufferParameteriv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glGetShaderiv(int shader, int pname, IntBuffer params) { params.put(params.position(), pname == GL20.GL_COMPILE_STATUS ? GL20.GL_TRUE : 0); }
+    @Override public String glGetShaderInfoLog(int p0) { return ""; }
+    @Override public void glGetShaderPrecisionFormat(int p0, int p1, IntBuffer p2, IntBuffer p3) {}
+    @Override public void glGetTexParameterfv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glGetTexParameteriv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glGetUniformfv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glGetUniformiv(int p0, int p1, IntBuffer p2) {}
+    @Override public int glGetUniformLocation(int p0, String p1) { return 0; }
+    @Override public void glGetVertexAttribfv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glGetVertexAttribiv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glGetVertexAttribPointerv(int p0, int p1, Buffer p2) {}
+    @Override public boolean glIsBuffer(int p0) { return false; }
+    @Override public boolean glIsEnabled(int p0) { return false; }
+    @Override public boolean glIsFramebuffer(int p0) { return false; }
+    @Override public boolean glIsProgram(int p0) { return false; }
+    @Override public boolean glIsRenderbuffer(int p0) { return false; }
+    @Override public boolean glIsShader(int p0) { return false; }
+    @Override public boolean glIsTexture(int p0) { return false; }
+    @Override public void glLinkProgram(int p0) {}
+    @Override public void glReleaseShaderCompiler() {}
+    @Override public void glRenderbufferStorage(int p0, int p1, int p2, int p3) {}
+    @Override public void glSampleCoverage(float p0, boolean p1) {}
+    @Override public void glShaderBinary(int p0, IntBuffer p1, int p2, Buffer p3, int p4) {}
+    @Override public void glShaderSource(int p0, String p1) {}
+    @Override public void glStencilFuncSeparate(int p0, int p1, int p2, int p3) {}
+    @Override public void glStencilMaskSeparate(int p0, int p1) {}
+    @Override public void glStencilOpSeparate(int p0, int p1, int p2, int p3) {}
+    @Override public void glTexParameterfv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glTexParameteri(int p0, int p1, int p2) {}
+    @Override public void glTexParameteriv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glUniform1f(int p0, float p1) {}
+    @Override public void glUniform1fv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glUniform1fv(int p0, int p1, float[] p2, int p3) {}
+    @Override public void glUniform1i(int p0, int p1) {}
+    @Override public void glUniform1iv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glUniform1iv(int p0, int p1, int[] p2, int p3) {}
+    @Override public void glUniform2f(int p0, float p1, float p2) {}
+    @Override public void glUniform2fv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glUniform2fv(int p0, int p1, float[] p2, int p3) {}
+    @Override public void glUniform2i(int p0, int p1, int p2) {}
+    @Override public void glUniform2iv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glUniform2iv(int p0, int p1, int[] p2, int p3) {}
+    @Override public void glUniform3f(int p0, float p1, float p2, float p3) {}
+    @Override public void glUniform3fv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glUniform3fv(int p0, int p1, float[] p2, int p3) {}
+    @Override public void glUniform3i(int p0, int p1, int p2, int p3) {}
+    @Override public void glUniform3iv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glUniform3iv(int p0, int p1, int[] p2, int p3) {}
+    @Override public void glUniform4f(int p0, float p1, float p2, float p3, float p4) {}
+    @Override public void glUniform4fv(int p0, int p1, FloatBuffer p2) {}
+    @Override public void glUniform4fv(int p0, int p1, float[] p2, int p3) {}
+    @Override public void glUniform4i(int p0, int p1, int p2, int p3, int p4) {}
+    @Override public void glUniform4iv(int p0, int p1, IntBuffer p2) {}
+    @Override public void glUniform4iv(int p0, int p1, int[] p2, int p3) {}
+    @Override public void glUniformMatrix2fv(int p0, int p1, boolean p2, FloatBuffer p3) {}
+    @Override public void glUniformMatrix2fv(int p0, int p1, boolean p2, float[] p3, int p4) {}
+    @Override public void glUniformMatrix3fv(int p0, int p1, boolean p2, FloatBuffer p3) {}
+    @Override public void glUniformMatrix3fv(int p0, int p1, boolean p2, float[] p3, int p4) {}
+    @Override public void glUniformMatrix4fv(int p0, int p1, boolean p2, FloatBuffer p3) {}
+    @Override public void glUniformMatrix4fv(int p0, int p1, boolean p2, float[] p3, int p4) {}
+    @Override public void glUseProgram(int p0) {}
+    @Override public void glValidateProgram(int p0) {}
+    @Override public void glVertexAttrib1f(int p0, float p1) {}
+    @Override public void glVertexAttrib1fv(int p0, FloatBuffer p1) {}
+    @Override public void glVertexAttrib2f(int p0, float p1, float p2) {}
+    @Override public void glVertexAttrib2fv(int p0, FloatBuffer p1) {}
+    @Override public void glVertexAttrib3f(int p0, float p1, float p2, float p3) {}
+    @Override public void glVertexAttrib3fv(int p0, FloatBuffer p1) {}
+    @Override public void glVertexAttrib4f(int p0, float p1, float p2, float p3, float p4) {}
+    @Override public void glVertexAttrib4fv(int p0, FloatBuffer p1) {}
+    @Override public void glVertexAttribPointer(int p0, int p1, int p2, boolean p3, int p4, Buffer p5) {}
+    @Override public void glVertexAttribPointer(int p0, int p1, int p2, boolean p3, int p4, int p5) {}
+
+}